@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package android.util;
+
+/**
+ * Stand-in for the Android log, so that handlers can be benchmarked on a
+ * plain JVM.
+ *
+ * Messages are only measured, so that writing them can't be optimized away.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public final class Log
+{
+    public static volatile int written;
+
+    private Log()
+    {
+    }
+
+    public static int v(String tag, String message, Throwable cause)
+    {
+        return write(message);
+    }
+
+    public static int d(String tag, String message, Throwable cause)
+    {
+        return write(message);
+    }
+
+    public static int i(String tag, String message, Throwable cause)
+    {
+        return write(message);
+    }
+
+    public static int w(String tag, String message, Throwable cause)
+    {
+        return write(message);
+    }
+
+    public static int e(String tag, String message, Throwable cause)
+    {
+        return write(message);
+    }
+
+    private static int write(String message)
+    {
+        written = message.length();
+
+        return written;
+    }
+}
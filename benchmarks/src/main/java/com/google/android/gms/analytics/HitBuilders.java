@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package com.google.android.gms.analytics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stand-in for the Play Services hit builders, so that hit building can be
+ * benchmarked on a plain JVM.
+ *
+ * Builds the same parameter maps as Play Services, without validation.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class HitBuilders
+{
+    protected static class HitBuilder<T extends HitBuilder<T>>
+    {
+        final private Map<String, String> parameters = new HashMap<String, String>();
+
+        protected HitBuilder(String type)
+        {
+            this.parameters.put("&t", type);
+        }
+
+        @SuppressWarnings("unchecked")
+        protected T set(String name, String value)
+        {
+            this.parameters.put(name, value);
+            return (T) this;
+        }
+
+        public T setCustomDimension(int index, String dimension)
+        {
+            return this.set("&cd" + index, dimension);
+        }
+
+        public Map<String, String> build()
+        {
+            return new HashMap<String, String>(this.parameters);
+        }
+    }
+
+    public static class EventBuilder extends HitBuilder<EventBuilder>
+    {
+        public EventBuilder()
+        {
+            super("event");
+        }
+
+        public EventBuilder setCategory(String category)
+        {
+            return this.set("&ec", category);
+        }
+
+        public EventBuilder setAction(String action)
+        {
+            return this.set("&ea", action);
+        }
+
+        public EventBuilder setLabel(String label)
+        {
+            return this.set("&el", label);
+        }
+
+        public EventBuilder setValue(long value)
+        {
+            return this.set("&ev", Long.toString(value));
+        }
+    }
+
+    public static class AppViewBuilder extends HitBuilder<AppViewBuilder>
+    {
+        public AppViewBuilder()
+        {
+            super("screenview");
+        }
+    }
+
+    public static class ExceptionBuilder extends HitBuilder<ExceptionBuilder>
+    {
+        public ExceptionBuilder()
+        {
+            super("exception");
+        }
+
+        public ExceptionBuilder setDescription(String description)
+        {
+            return this.set("&exd", description);
+        }
+
+        public ExceptionBuilder setFatal(boolean fatal)
+        {
+            return this.set("&exf", fatal ? "1" : "0");
+        }
+    }
+}
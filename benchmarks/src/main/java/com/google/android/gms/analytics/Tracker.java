@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package com.google.android.gms.analytics;
+
+import java.util.Map;
+
+/**
+ * Stand-in for the Play Services tracker, so that the library compiles on a
+ * plain JVM. Benchmarks send hits to a fake analytics tracker instead.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class Tracker
+{
+    public void setScreenName(String name)
+    {
+    }
+
+    public void send(Map<String, String> hit)
+    {
+    }
+}
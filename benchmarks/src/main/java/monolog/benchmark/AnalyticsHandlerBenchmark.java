@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.HandlerResult;
+import monolog.handler.analytics.AnalyticsHandler;
+import monolog.handler.analytics.TrackedEvent;
+import monolog.handler.analytics.TrackedScreen;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building analytics hits, sent to a fake tracker.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalyticsHandlerBenchmark
+{
+    @Param({"1", "32"})
+    public int batchSize;
+
+    private AnalyticsHandler handler;
+    private Record error = new Record(LogLevel.ERROR, "Sync failed", new IllegalStateException("Offline"));
+    private Record event = new Record(LogLevel.TRACE, new TrackedEvent("Sync", "Start", "Settings", 1L), null);
+    private Record screen = new Record(LogLevel.TRACE, new TrackedScreen("Settings"), null);
+
+    @Setup
+    public void setUp()
+    {
+        this.handler = new AnalyticsHandler(new FakeTracker(), this.batchSize, TimeUnit.SECONDS.toMillis(30));
+    }
+
+    @Benchmark
+    public HandlerResult errorHit()
+    {
+        return this.handler.handle(this.error);
+    }
+
+    @Benchmark
+    public HandlerResult eventHit()
+    {
+        return this.handler.handle(this.event);
+    }
+
+    @Benchmark
+    public HandlerResult screenHit()
+    {
+        return this.handler.handle(this.screen);
+    }
+}
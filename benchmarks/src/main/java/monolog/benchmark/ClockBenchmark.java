@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.CachedClock;
+import monolog.Clock;
+import monolog.LogLevel;
+import monolog.Monolog;
+import monolog.handler.Handler;
+import monolog.handler.NullHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading the time that records are stamped with, on its own and
+ * as part of logging a record to a single handler.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClockBenchmark
+{
+    @Param({"system", "cached"})
+    public String clockType;
+
+    private Clock clock;
+    private Monolog logger;
+
+    @Setup
+    public void setUp()
+    {
+        this.clock = "cached".equals(this.clockType) ? new CachedClock() : Clock.SYSTEM;
+        Handler[] handlers = {new NullHandler(new LogLevel[] {LogLevel.DEBUG})};
+        this.logger = new Monolog(handlers, true, true, null, this.clock);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException
+    {
+        if (this.clock instanceof CachedClock) {
+            ((CachedClock) this.clock).shutdown(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @Benchmark
+    public long read()
+    {
+        return this.clock.currentTimeMillis();
+    }
+
+    @Benchmark
+    public void debugMessage()
+    {
+        this.logger.debug("Loaded the user's settings");
+    }
+}
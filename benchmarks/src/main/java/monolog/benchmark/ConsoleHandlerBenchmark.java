@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.LogLevel;
+import monolog.LogName;
+import monolog.Record;
+import monolog.handler.HandlerResult;
+import monolog.handler.console.ConsoleHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering messages for the console, with the Android log stubbed
+ * out.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsoleHandlerBenchmark
+{
+    private ConsoleHandler handler = new ConsoleHandler("Benchmark", LogLevel.ALL);
+    private Object named = new NamedScreen();
+    private Object unnamed = new UnnamedScreen();
+
+    @Benchmark
+    public HandlerResult logNameMessage()
+    {
+        return this.handler.handle(new Record(LogLevel.INFO, this.named, null));
+    }
+
+    @Benchmark
+    public HandlerResult toStringMessage()
+    {
+        return this.handler.handle(new Record(LogLevel.INFO, this.unnamed, null));
+    }
+
+    @LogName("Settings")
+    public static class NamedScreen
+    {
+    }
+
+    public static class UnnamedScreen
+    {
+        @Override
+        public String toString()
+        {
+            return "Settings";
+        }
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.datagram.DatagramHandler;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams syslog records to a receiver on localhost at fixed rates, and
+ * reports how many arrive.
+ *
+ * JMH measures how fast an operation can run, rather than how a handler keeps
+ * up with a steady rate of records, so this runs on its own:
+ *
+ *     java -cp ... monolog.benchmark.DatagramThroughput [seconds]
+ *
+ * Records are logged from one thread in bursts every millisecond. For each
+ * rate it prints the records logged, sent and received per second, the
+ * records packed into each datagram, the records dropped, the time the
+ * logging thread spent per record, and the CPU time of the sender thread
+ * per record.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class DatagramThroughput
+{
+    final private static int[] RATES = {10000, 100000, 1000000};
+
+    public static void main(String[] arguments) throws Exception
+    {
+        int seconds = 0 == arguments.length ? 5 : Integer.parseInt(arguments[0]);
+
+        System.out.println("rate/s     logged/s   sent/s     received/s  per datagram  dropped  log ns  sender CPU ns");
+        for (int rate : RATES) {
+            run(rate, seconds);
+        }
+    }
+
+    private static void run(int rate, int seconds) throws Exception
+    {
+        final DatagramSocket socket = new DatagramSocket(0, InetAddress.getByName("127.0.0.1"));
+        socket.setReceiveBufferSize(8 * 1024 * 1024);
+        final AtomicLong received = new AtomicLong();
+        Thread receiver = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                byte[] buffer = new byte[65536];
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                try {
+                    while (true) {
+                        socket.receive(packet);
+                        long lines = 0;
+                        for (int index = 0; index < packet.getLength(); index++) {
+                            if ('\n' == buffer[index]) {
+                                lines++;
+                            }
+                        }
+                        received.addAndGet(lines);
+                    }
+                } catch (SocketException exception) {
+                    // Closed at the end of the run.
+                } catch (IOException exception) {
+                    exception.printStackTrace();
+                }
+            }
+        }, "receiver");
+        receiver.start();
+
+        DatagramHandler handler = new DatagramHandler(
+            new InetSocketAddress(socket.getLocalAddress(), socket.getLocalPort()),
+            "benchmark",
+            "monolog",
+            LogLevel.ALL
+        );
+        Thread sender = findThread("monolog-datagram");
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long senderCpu = threads.getThreadCpuTime(sender.getId());
+
+        Record record = new Record(LogLevel.INFO, "Loaded {} settings in {} ms", 2, 42, 3.5, null, null);
+        long perBurst = Math.max(1, rate / 1000);
+        long logged = 0;
+        long logNanos = 0;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+
+        for (long burst = start; burst < end; burst += TimeUnit.MILLISECONDS.toNanos(1)) {
+            long wait = burst - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            long before = System.nanoTime();
+            for (int index = 0; index < perBurst; index++) {
+                handler.handle(record);
+            }
+            logNanos += System.nanoTime() - before;
+            logged += perBurst;
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        // Let the queue drain, reading the sender's CPU time while it runs.
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (handler.getSentCount() + handler.getDroppedCount() < logged && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        senderCpu = threads.getThreadCpuTime(sender.getId()) - senderCpu;
+        handler.shutdown(5, TimeUnit.SECONDS);
+        Thread.sleep(200);
+        socket.close();
+        receiver.join();
+
+        System.out.println(String.format(
+            "%-10d %-10.0f %-10.0f %-11.0f %-13.1f %-8d %-7.0f %.0f",
+            rate,
+            logged / elapsed,
+            handler.getSentCount() / elapsed,
+            received.get() / elapsed,
+            (double) handler.getSentCount() / Math.max(1, handler.getDatagramCount()),
+            handler.getDroppedCount(),
+            (double) logNanos / logged,
+            (double) senderCpu / Math.max(1, handler.getSentCount())
+        ));
+    }
+
+    private static Thread findThread(String name)
+    {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (name.equals(thread.getName())) {
+                return thread;
+            }
+        }
+
+        throw new IllegalStateException("No thread named " + name);
+    }
+}
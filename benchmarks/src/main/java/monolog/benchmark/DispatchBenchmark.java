@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.CachedClock;
+import monolog.LogLevel;
+import monolog.Monolog;
+import monolog.handler.Handler;
+import monolog.handler.NullHandler;
+import monolog.metrics.DispatchMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures sending records through chains of handlers.
+ *
+ * Half of the handlers in each chain are only enabled for errors, so that
+ * debug records show the cost of skipping handlers that can't act on them.
+ * No handler is enabled for trace records. Instrumented loggers measure
+ * every handler call. Records are stamped from a cached clock, so that the
+ * cost of reading the system clock, measured by ClockBenchmark, does not
+ * hide the cost of dispatching.
+ *
+ * HotSpot removes records that are not pooled by escape analysis, which
+ * Android's runtime does not, so the message is also measured with escape
+ * analysis turned off to show what pooling saves there.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark
+{
+    @Param({"1", "4", "16"})
+    public int chainLength;
+
+    @Param({"false", "true"})
+    public boolean reuseRecords;
+
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    private CachedClock clock;
+    private Monolog logger;
+    private int counter;
+
+    @Setup
+    public void setUp()
+    {
+        Handler[] handlers = new Handler[this.chainLength];
+        for (int index = 0; index < handlers.length; index++) {
+            handlers[index] = index % 2 == 0
+                ? new NullHandler(new LogLevel[] {LogLevel.DEBUG, LogLevel.ERROR})
+                : new NullHandler(new LogLevel[] {LogLevel.ERROR});
+        }
+
+        DispatchMetrics metrics = this.instrumented ? new DispatchMetrics() : null;
+        this.clock = new CachedClock();
+        this.logger = new Monolog(handlers, true, this.reuseRecords, metrics, this.clock);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException
+    {
+        this.clock.shutdown(1, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    public void debugMessage()
+    {
+        this.logger.debug("Loaded the user's settings");
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-XX:-DoEscapeAnalysis")
+    public void debugMessageWithoutEscapeAnalysis()
+    {
+        this.logger.debug("Loaded the user's settings");
+    }
+
+    @Benchmark
+    public void debugTemplate()
+    {
+        this.logger.debug("Loaded {} settings", this.counter++);
+    }
+
+    @Benchmark
+    public void traceDisabled()
+    {
+        this.logger.trace("Loaded {} settings", this.counter++);
+    }
+}
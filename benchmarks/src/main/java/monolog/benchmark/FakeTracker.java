@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.handler.analytics.AnalyticsTracker;
+
+import java.util.Map;
+
+/**
+ * Analytics tracker that counts hits instead of sending them.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class FakeTracker implements AnalyticsTracker
+{
+    public volatile String screenName;
+    public volatile int parameters;
+    public volatile long hits;
+
+    @Override
+    public void setScreenName(String name)
+    {
+        this.screenName = name;
+    }
+
+    @Override
+    public void send(Map<String, String> hit)
+    {
+        this.parameters = hit.size();
+        this.hits++;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.HandlerResult;
+import monolog.handler.file.BinaryRecordEncoder;
+import monolog.handler.file.FileHandler;
+import monolog.handler.file.RecordEncoder;
+import monolog.handler.file.TextRecordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares appending records with the memory-mapped file handler against a
+ * plain output stream, from four threads.
+ *
+ * Info records measure appending alone. Error records are synced to the
+ * storage device, which the file handler shares between waiting threads.
+ * Sample time mode reports the p99 latency of each append.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class FileHandlerBenchmark
+{
+    @Param({"text", "binary"})
+    public String format;
+
+    private File directory;
+    private FileHandler mapped;
+    private StreamFileHandler stream;
+    private Record info = new Record(LogLevel.INFO, "Loaded {} settings in {} ms", 2, 42, 3.5, null, null);
+    private Record error = new Record(LogLevel.ERROR, "Sync failed for {}", 1, "settings", null, null, null);
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        this.directory = File.createTempFile("monolog", "benchmark");
+        if (false == this.directory.delete() || false == this.directory.mkdirs()) {
+            throw new IOException("Unable to create " + this.directory);
+        }
+
+        this.mapped = new FileHandler(
+            this.directory,
+            "mapped",
+            LogLevel.ALL,
+            this.createEncoder(),
+            16 * 1024 * 1024,
+            TimeUnit.HOURS.toMillis(1),
+            LogLevel.ERROR
+        );
+        this.stream = new StreamFileHandler(new File(this.directory, "stream.log"), this.createEncoder());
+    }
+
+    private RecordEncoder createEncoder()
+    {
+        return "binary".equals(this.format) ? new BinaryRecordEncoder() : new TextRecordEncoder();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        this.mapped.close();
+        this.stream.close();
+
+        File[] files = this.directory.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Benchmark
+    public HandlerResult mappedInfo()
+    {
+        return this.mapped.handle(this.info);
+    }
+
+    @Benchmark
+    public HandlerResult streamInfo()
+    {
+        return this.stream.handle(this.info);
+    }
+
+    @Benchmark
+    public HandlerResult mappedError()
+    {
+        return this.mapped.handle(this.error);
+    }
+
+    @Benchmark
+    public HandlerResult streamError()
+    {
+        return this.stream.handle(this.error);
+    }
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.file.BinaryRecordEncoder;
+import monolog.handler.file.FileHandler;
+import monolog.handler.file.SegmentCompressor;
+import monolog.handler.file.TextRecordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures compressing a full 1MB segment, as the retention manager does
+ * with each segment the file handler finishes.
+ *
+ * The score is the time to compress one segment, which is the time per MB.
+ * At the end of each trial the compression ratio, the uncompressed size over
+ * the compressed size, is printed along with the CPU time of the compressing
+ * thread per MB.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SegmentCompressionBenchmark
+{
+    final private static int SEGMENT_SIZE = 1024 * 1024;
+    final private static String[] USERS = {"alice", "bob", "carol", "dave", "erin", "frank"};
+
+    @Param({"text", "binary"})
+    public String format;
+
+    @Param({"1", "6"})
+    public int level;
+
+    private File directory;
+    private File segment;
+    private File target;
+    private SegmentCompressor compressor;
+    final private ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private long inputBytes;
+    private long outputBytes;
+    private long cpuNanos;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        this.directory = File.createTempFile("monolog", "benchmark");
+        if (false == this.directory.delete() || false == this.directory.mkdirs()) {
+            throw new IOException("Unable to create " + this.directory);
+        }
+
+        FileHandler handler = new FileHandler(
+            this.directory,
+            "segment",
+            LogLevel.ALL,
+            "binary".equals(this.format) ? new BinaryRecordEncoder() : new TextRecordEncoder(),
+            SEGMENT_SIZE,
+            TimeUnit.HOURS.toMillis(1),
+            LogLevel.FATAL
+        );
+
+        // Write until the first segment is full and a second one is started.
+        Exception cause = new IllegalStateException("Connection reset");
+        for (int index = 0; this.countFiles() < 2; index++) {
+            String user = USERS[index % USERS.length];
+            if (0 == index % 50) {
+                handler.handle(new Record(LogLevel.ERROR, "Sync failed for {}", 1, user, null, null, cause));
+            } else if (0 == index % 3) {
+                handler.handle(new Record(LogLevel.DEBUG, "Request {} took {} ms", 2, index, index % 250, null, null));
+            } else {
+                handler.handle(new Record(LogLevel.INFO, "Loaded {} settings for {}", 2, index % 40, user, null, null));
+            }
+        }
+        handler.close();
+
+        File[] files = this.directory.listFiles();
+        this.segment = files[0].getName().compareTo(files[1].getName()) < 0 ? files[0] : files[1];
+        this.target = new File(this.directory, "compressed" + SegmentCompressor.EXTENSION);
+        this.compressor = new SegmentCompressor(this.level);
+    }
+
+    private int countFiles()
+    {
+        String[] names = this.directory.list();
+
+        return null == names ? 0 : names.length;
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        System.out.println(String.format(
+            "%s at level %d: ratio %.1f, %.2f ms CPU per MB",
+            this.format,
+            this.level,
+            (double) this.inputBytes / this.outputBytes,
+            this.cpuNanos / 1e6 / (this.inputBytes / (double) SEGMENT_SIZE)
+        ));
+
+        File[] files = this.directory.listFiles();
+        if (null != files) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Benchmark
+    public long compress() throws IOException
+    {
+        long start = this.threads.getCurrentThreadCpuTime();
+        long size = this.compressor.compress(this.segment, this.target);
+        this.cpuNanos += this.threads.getCurrentThreadCpuTime() - start;
+        this.inputBytes += this.segment.length();
+        this.outputBytes += size;
+
+        return size;
+    }
+}
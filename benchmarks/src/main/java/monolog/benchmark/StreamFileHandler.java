@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.HandlerResult;
+import monolog.handler.SwitchedHandler;
+import monolog.handler.file.ByteSink;
+import monolog.handler.file.RecordEncoder;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes each record to a file with a plain output stream, as a baseline to
+ * compare the memory-mapped file handler against.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class StreamFileHandler extends SwitchedHandler
+{
+    final private FileOutputStream stream;
+    final private RecordEncoder encoder;
+    final private ByteSink sink = new ByteSink(1024);
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    public StreamFileHandler(File file, RecordEncoder encoder) throws FileNotFoundException
+    {
+        super(LogLevel.ALL);
+
+        this.stream = new FileOutputStream(file);
+        this.encoder = encoder;
+    }
+
+    @Override
+    protected synchronized HandlerResult log(Record record)
+    {
+        this.sink.clear();
+        this.encoder.encode(record, this.sink);
+
+        if (this.buffer.capacity() < this.sink.size()) {
+            this.buffer = ByteBuffer.allocate(this.sink.size());
+        }
+        this.buffer.clear();
+        this.sink.copyTo(this.buffer);
+
+        try {
+            this.stream.write(this.buffer.array(), 0, this.buffer.position());
+            if (record.getLevel().compareTo(LogLevel.ERROR) >= 0) {
+                this.stream.getFD().sync();
+            }
+        } catch (IOException exception) {
+            return HandlerResult.PASSED;
+        }
+
+        return HandlerResult.HANDLED;
+    }
+
+    public void close() throws IOException
+    {
+        this.stream.close();
+    }
+}
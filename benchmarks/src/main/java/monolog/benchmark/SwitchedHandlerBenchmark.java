@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.benchmark;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.HandlerResult;
+import monolog.handler.NullHandler;
+import monolog.handler.SwitchedHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the level check of a switched handler.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SwitchedHandlerBenchmark
+{
+    private SwitchedHandler handler = new NullHandler(new LogLevel[] {LogLevel.INFO, LogLevel.WARN, LogLevel.ERROR});
+    private Record enabled = new Record(LogLevel.WARN, "Enabled", null);
+    private Record disabled = new Record(LogLevel.DEBUG, "Disabled", null);
+
+    @Benchmark
+    public HandlerResult enabledLevel()
+    {
+        return this.handler.handle(this.enabled);
+    }
+
+    @Benchmark
+    public HandlerResult disabledLevel()
+    {
+        return this.handler.handle(this.disabled);
+    }
+}
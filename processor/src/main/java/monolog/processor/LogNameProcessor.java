@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.annotation.processing.SupportedOptions;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Generates a registry of the `LogName` of every annotated class.
+ *
+ * The generated class implements `monolog.LogNameRegistry` and can be
+ * installed with `LogNames.setRegistry`, so that log names are found without
+ * reading annotations at runtime. It is named `monolog.LogNameIndex` unless
+ * the `monolog.logNameRegistry` processor option names another class.
+ *
+ * Only classes that the registry's package can refer to are added to it:
+ * public classes, and classes in the same package that are not private.
+ * The rest are left for the runtime to read from their annotations.
+ *
+ * The registry is written at the end of the first round that finds
+ * annotated classes, while later rounds can still compile it. Classes
+ * generated by other processors in later rounds are also left for the
+ * runtime.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SupportedAnnotationTypes(LogNameProcessor.ANNOTATION)
+@SupportedOptions(LogNameProcessor.OPTION_REGISTRY)
+public class LogNameProcessor extends AbstractProcessor
+{
+    final static String ANNOTATION = "monolog.LogName";
+    final static String OPTION_REGISTRY = "monolog.logNameRegistry";
+    final private static String DEFAULT_REGISTRY = "monolog.LogNameIndex";
+
+    /**
+     * Log names collected over every round, keyed by canonical class name.
+     */
+    final private Map<String, String> names = new TreeMap<String, String>();
+    private boolean written = false;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion()
+    {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment environment)
+    {
+        if (environment.processingOver()) {
+            return false;
+        }
+
+        for (TypeElement annotation : annotations) {
+            for (Element element : environment.getElementsAnnotatedWith(annotation)) {
+                this.collect(element);
+            }
+        }
+
+        if (false == this.written && false == this.names.isEmpty()) {
+            this.writeRegistry();
+            this.written = true;
+        }
+
+        return false;
+    }
+
+    private void collect(Element element)
+    {
+        if (false == element instanceof TypeElement || ElementKind.ANNOTATION_TYPE == element.getKind()) {
+            return;
+        }
+
+        if (this.written) {
+            this.note("Class generated after the log name registry was written is not added to it.", element);
+            return;
+        }
+
+        String registryPackage = getPackageName(this.getRegistryName());
+        for (Element enclosing = element; enclosing instanceof TypeElement; enclosing = enclosing.getEnclosingElement()) {
+            if (enclosing.getModifiers().contains(Modifier.PUBLIC)) {
+                continue;
+            }
+            if (enclosing.getModifiers().contains(Modifier.PRIVATE)) {
+                this.note("Private class is not added to the log name registry.", element);
+                return;
+            }
+            if (false == registryPackage.equals(this.getPackageOf(element))) {
+                this.note("Class that is not public is only added to a log name registry in its own package.", element);
+                return;
+            }
+        }
+
+        String value = this.getValue(element);
+        if (null != value) {
+            this.names.put(((TypeElement) element).getQualifiedName().toString(), value);
+        }
+    }
+
+    private void note(String message, Element element)
+    {
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, message, element);
+    }
+
+    /**
+     * @return Qualified name of the registry class to generate.
+     */
+    private String getRegistryName()
+    {
+        String registry = this.processingEnv.getOptions().get(OPTION_REGISTRY);
+        if (null == registry || registry.length() == 0) {
+            return DEFAULT_REGISTRY;
+        }
+
+        return registry;
+    }
+
+    /**
+     * @return Package of a qualified class name, or an empty string for the
+     *         unnamed package.
+     */
+    private static String getPackageName(String className)
+    {
+        int separator = className.lastIndexOf('.');
+
+        return -1 == separator ? "" : className.substring(0, separator);
+    }
+
+    private String getPackageOf(Element element)
+    {
+        PackageElement packageElement = this.processingEnv.getElementUtils().getPackageOf(element);
+
+        return packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+    }
+
+    /**
+     * @return The value of the element's LogName annotation.
+     */
+    private String getValue(Element element)
+    {
+        for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) mirror.getAnnotationType().asElement();
+            if (false == type.getQualifiedName().contentEquals(ANNOTATION)) {
+                continue;
+            }
+
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    return String.valueOf(entry.getValue().getValue());
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private void writeRegistry()
+    {
+        String registry = this.getRegistryName();
+        String packageName = getPackageName(registry);
+        String className = registry.substring(registry.lastIndexOf('.') + 1);
+
+        try {
+            JavaFileObject file = this.processingEnv.getFiler().createSourceFile(registry);
+            Writer writer = file.openWriter();
+            try {
+                if (false == packageName.isEmpty()) {
+                    writer.write("package " + packageName + ";\n\n");
+                }
+                writer.write("/**\n");
+                writer.write(" * Log names of annotated classes, generated by " + this.getClass().getName() + ".\n");
+                writer.write(" */\n");
+                writer.write("public final class " + className + " implements monolog.LogNameRegistry\n{\n");
+                writer.write("    private static final java.util.Map<Class<?>, String> NAMES =\n");
+                writer.write("        new java.util.IdentityHashMap<Class<?>, String>(" + this.names.size() * 2 + ");\n\n");
+                writer.write("    static {\n");
+                for (Map.Entry<String, String> entry : this.names.entrySet()) {
+                    writer.write("        NAMES.put(" + entry.getKey() + ".class, \"" + escape(entry.getValue()) + "\");\n");
+                }
+                writer.write("    }\n\n");
+                writer.write("    @Override\n");
+                writer.write("    public String getName(Class<?> type)\n    {\n");
+                writer.write("        return NAMES.get(type);\n");
+                writer.write("    }\n}\n");
+            } finally {
+                writer.close();
+            }
+        } catch (IOException exception) {
+            this.processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.ERROR,
+                "Unable to write log name registry " + registry + ": " + exception.getMessage()
+            );
+        }
+    }
+
+    /**
+     * Escapes a value to be written as a Java string literal.
+     */
+    private static String escape(String value)
+    {
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            switch (character) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (character < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        builder.append(character);
+                    }
+            }
+        }
+
+        return builder.toString();
+    }
+}
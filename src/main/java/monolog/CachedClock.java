@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Clock that is read from fields, updated by a background thread.
+ *
+ * Reading the time is a single volatile read, instead of a call into the
+ * system clock for every record. In exchange, both the time and the
+ * monotonic time are only as precise as the interval between updates, and
+ * records logged within the same interval share their times. The time never
+ * goes backwards, even if the system clock is set back, so records stay in
+ * the order they were logged.
+ *
+ * The background thread wakes up once per interval while the clock runs,
+ * so it is worth using only when records are logged far more often than
+ * that.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+final public class CachedClock implements Clock
+{
+    final private static long DEFAULT_RESOLUTION = 1;
+
+    final private long resolutionNanos;
+    final private Thread ticker;
+    private volatile long now;
+    private volatile long nanos;
+    private volatile boolean running = true;
+
+    /**
+     * Updates the time every millisecond.
+     */
+    public CachedClock()
+    {
+        this(DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * @param resolutionMillis Time between updates of the clock.
+     */
+    public CachedClock(long resolutionMillis)
+    {
+        if (resolutionMillis < 1) {
+            throw new IllegalArgumentException("Clock must be updated at most once per millisecond.");
+        }
+
+        this.resolutionNanos = TimeUnit.MILLISECONDS.toNanos(resolutionMillis);
+        this.now = System.currentTimeMillis();
+        this.nanos = System.nanoTime();
+        this.ticker = new Thread(new Ticker(), "monolog-clock");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    @Override
+    final public long currentTimeMillis()
+    {
+        return this.now;
+    }
+
+    @Override
+    final public long nanoTime()
+    {
+        return this.nanos;
+    }
+
+    /**
+     * Stops the background thread. The clock keeps the last time it read.
+     *
+     * @param timeout Maximum time to wait for the thread to finish.
+     * @param unit Unit of the timeout.
+     * @return Whether the background thread finished within the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        this.running = false;
+        LockSupport.unpark(this.ticker);
+        this.ticker.join(Math.max(1, unit.toMillis(timeout)));
+
+        return false == this.ticker.isAlive();
+    }
+
+    /**
+     * Reads the system clock once per interval until the clock is shut down.
+     */
+    private class Ticker implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            while (running) {
+                LockSupport.parkNanos(this, resolutionNanos);
+
+                nanos = System.nanoTime();
+                long time = System.currentTimeMillis();
+                if (time > now) {
+                    now = time;
+                }
+            }
+        }
+    }
+}
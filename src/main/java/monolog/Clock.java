@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+/**
+ * Source of the times that records are stamped with.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public interface Clock
+{
+    /**
+     * Reads the system clock on every call.
+     */
+    Clock SYSTEM = new Clock() {
+        @Override
+        public long currentTimeMillis()
+        {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public long nanoTime()
+        {
+            return System.nanoTime();
+        }
+    };
+
+    /**
+     * @return The current time, in milliseconds since the epoch.
+     */
+    long currentTimeMillis();
+
+    /**
+     * @return The current monotonic time, in nanoseconds, only meaningful
+     *         compared with another value from the same clock, like
+     *         `System.nanoTime`.
+     */
+    long nanoTime();
+}
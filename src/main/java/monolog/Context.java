@@ -0,0 +1,377 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An immutable map of named fields that describe where a record was logged,
+ * such as the current request or session.
+ *
+ * Adding or removing a field returns a new context that shares all of the
+ * unchanged parts of the old one, as a hash array mapped trie. Contexts can
+ * therefore be handed to records by reference, and kept by handlers for as
+ * long as they like, without being copied.
+ *
+ * @see ThreadContext
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class Context
+{
+    /**
+     * A context with no fields.
+     */
+    final public static Context EMPTY = new Context(Node.EMPTY, 0);
+
+    final private Node root;
+    final private int size;
+
+    private Context(Node root, int size)
+    {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @return Number of fields in the context.
+     */
+    final public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * @return Whether the context has no fields.
+     */
+    final public boolean isEmpty()
+    {
+        return 0 == this.size;
+    }
+
+    /**
+     * @param key Name of the field.
+     * @return The value of the field, or null if the context doesn't have it.
+     */
+    final public Object get(String key)
+    {
+        if (0 == this.size) {
+            return null;
+        }
+
+        return this.root.get(0, key.hashCode(), key);
+    }
+
+    /**
+     * @param key Name of the field.
+     * @param value Value of the field, or null to remove it.
+     * @return A context with the field set to the value.
+     */
+    final public Context with(String key, Object value)
+    {
+        if (null == key) {
+            throw new IllegalArgumentException("Context fields must have a name.");
+        }
+        if (null == value) {
+            return this.without(key);
+        }
+
+        int hash = key.hashCode();
+        boolean existing = null != this.root.get(0, hash, key);
+        Node root = this.root.put(0, hash, key, value);
+
+        if (root == this.root) {
+            return this;
+        }
+
+        return new Context(root, existing ? this.size : this.size + 1);
+    }
+
+    /**
+     * @param key Name of the field.
+     * @return A context without the field.
+     */
+    final public Context without(String key)
+    {
+        if (0 == this.size || null == key) {
+            return this;
+        }
+
+        Node root = this.root.remove(0, key.hashCode(), key);
+        if (root == this.root) {
+            return this;
+        }
+
+        return new Context(root, this.size - 1);
+    }
+
+    /**
+     * Combines two contexts, sharing as much of them as possible.
+     *
+     * @param fields Fields to add to this context.
+     * @return A context with the fields of both, using the values of the
+     *         given context for fields that are in both.
+     */
+    final public Context withAll(Context fields)
+    {
+        if (fields.isEmpty()) {
+            return this;
+        }
+        if (this.isEmpty()) {
+            return fields;
+        }
+
+        final Context[] combined = new Context[] {this};
+        fields.forEach(new Visitor()
+        {
+            @Override
+            public void visit(String key, Object value)
+            {
+                combined[0] = combined[0].with(key, value);
+            }
+        });
+
+        return combined[0];
+    }
+
+    /**
+     * Reads each field of the context, without copying them.
+     *
+     * @param visitor Invoked with each field, in no particular order.
+     */
+    final public void forEach(Visitor visitor)
+    {
+        if (0 != this.size) {
+            this.root.forEach(visitor);
+        }
+    }
+
+    /**
+     * @return A new mutable copy of the fields.
+     */
+    final public Map<String, Object> toMap()
+    {
+        final Map<String, Object> map = new HashMap<String, Object>(this.size * 2);
+        this.forEach(new Visitor()
+        {
+            @Override
+            public void visit(String key, Object value)
+            {
+                map.put(key, value);
+            }
+        });
+
+        return map;
+    }
+
+    @Override
+    public String toString()
+    {
+        final StringBuilder builder = new StringBuilder("{");
+        this.forEach(new Visitor()
+        {
+            @Override
+            public void visit(String key, Object value)
+            {
+                if (builder.length() > 1) {
+                    builder.append(", ");
+                }
+                builder.append(key).append('=').append(value);
+            }
+        });
+
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Receives the fields of a context.
+     */
+    public interface Visitor
+    {
+        /**
+         * @param key Name of the field.
+         * @param value Value of the field, never null.
+         */
+        void visit(String key, Object value);
+    }
+
+    /**
+     * A level of the trie.
+     *
+     * Each node indexes five bits of the key's hash. Its array holds a pair of
+     * slots for each bit set in the bitmap: either a key and its value, or a
+     * null key and the node for the next five bits. Once the hash runs out,
+     * nodes hold a plain list of the keys and values whose hashes collide.
+     */
+    private static class Node
+    {
+        final static int BITS = 5;
+        final static int MASK = (1 << BITS) - 1;
+        final static Node EMPTY = new Node(0, new Object[0]);
+
+        final private int bitmap;
+        final private Object[] array;
+
+        Node(int bitmap, Object[] array)
+        {
+            this.bitmap = bitmap;
+            this.array = array;
+        }
+
+        Object get(int shift, int hash, String key)
+        {
+            if (shift >= 32) {
+                for (int index = 0; index < this.array.length; index += 2) {
+                    if (key.equals(this.array[index])) {
+                        return this.array[index + 1];
+                    }
+                }
+
+                return null;
+            }
+
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if (0 == (this.bitmap & bit)) {
+                return null;
+            }
+
+            int index = this.indexOf(bit);
+            Object existing = this.array[index];
+            if (null == existing) {
+                return ((Node) this.array[index + 1]).get(shift + BITS, hash, key);
+            }
+
+            return key.equals(existing) ? this.array[index + 1] : null;
+        }
+
+        Node put(int shift, int hash, String key, Object value)
+        {
+            if (shift >= 32) {
+                for (int index = 0; index < this.array.length; index += 2) {
+                    if (key.equals(this.array[index])) {
+                        return value == this.array[index + 1] ? this : this.replace(index + 1, value);
+                    }
+                }
+
+                return this.insert(this.array.length, 0, key, value);
+            }
+
+            int bit = 1 << ((hash >>> shift) & MASK);
+            int index = this.indexOf(bit);
+            if (0 == (this.bitmap & bit)) {
+                return this.insert(index, bit, key, value);
+            }
+
+            Object existing = this.array[index];
+            Object existingValue = this.array[index + 1];
+            if (null == existing) {
+                Node child = ((Node) existingValue).put(shift + BITS, hash, key, value);
+                return child == existingValue ? this : this.replace(index + 1, child);
+            }
+            if (key.equals(existing)) {
+                return value == existingValue ? this : this.replace(index + 1, value);
+            }
+
+            String existingKey = (String) existing;
+            Node child = EMPTY
+                .put(shift + BITS, existingKey.hashCode(), existingKey, existingValue)
+                .put(shift + BITS, hash, key, value);
+
+            Object[] array = this.array.clone();
+            array[index] = null;
+            array[index + 1] = child;
+
+            return new Node(this.bitmap, array);
+        }
+
+        Node remove(int shift, int hash, String key)
+        {
+            if (shift >= 32) {
+                for (int index = 0; index < this.array.length; index += 2) {
+                    if (key.equals(this.array[index])) {
+                        return this.delete(index, 0);
+                    }
+                }
+
+                return this;
+            }
+
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if (0 == (this.bitmap & bit)) {
+                return this;
+            }
+
+            int index = this.indexOf(bit);
+            Object existing = this.array[index];
+            if (null != existing) {
+                return key.equals(existing) ? this.delete(index, bit) : this;
+            }
+
+            Node child = (Node) this.array[index + 1];
+            Node removed = child.remove(shift + BITS, hash, key);
+            if (removed == child) {
+                return this;
+            }
+            if (0 == removed.array.length) {
+                return this.delete(index, bit);
+            }
+            if (2 == removed.array.length && null != removed.array[0]) {
+                // A single field left below is moved up into this level.
+                Object[] array = this.array.clone();
+                array[index] = removed.array[0];
+                array[index + 1] = removed.array[1];
+
+                return new Node(this.bitmap, array);
+            }
+
+            return this.replace(index + 1, removed);
+        }
+
+        void forEach(Visitor visitor)
+        {
+            for (int index = 0; index < this.array.length; index += 2) {
+                Object key = this.array[index];
+                if (null == key) {
+                    ((Node) this.array[index + 1]).forEach(visitor);
+                } else {
+                    visitor.visit((String) key, this.array[index + 1]);
+                }
+            }
+        }
+
+        private int indexOf(int bit)
+        {
+            return 2 * Integer.bitCount(this.bitmap & (bit - 1));
+        }
+
+        private Node replace(int index, Object value)
+        {
+            Object[] array = this.array.clone();
+            array[index] = value;
+
+            return new Node(this.bitmap, array);
+        }
+
+        private Node insert(int index, int bit, Object key, Object value)
+        {
+            Object[] array = new Object[this.array.length + 2];
+            System.arraycopy(this.array, 0, array, 0, index);
+            array[index] = key;
+            array[index + 1] = value;
+            System.arraycopy(this.array, index, array, index + 2, this.array.length - index);
+
+            return new Node(this.bitmap | bit, array);
+        }
+
+        private Node delete(int index, int bit)
+        {
+            Object[] array = new Object[this.array.length - 2];
+            System.arraycopy(this.array, 0, array, 0, index);
+            System.arraycopy(this.array, index + 2, array, index, array.length - index);
+
+            return new Node(this.bitmap & ~bit, array);
+        }
+    }
+}
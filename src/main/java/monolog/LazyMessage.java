@@ -0,0 +1,27 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+/**
+ * A message that is not built until a handler needs it.
+ *
+ * Log one of these in place of a message that is expensive to build. The
+ * record will build the message the first time it is asked for, and share the
+ * result with every handler in the chain. If no handler asks for the message,
+ * it is never built.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public interface LazyMessage
+{
+    /**
+     * Builds the message to be logged.
+     *
+     * This is invoked at most once per record.
+     *
+     * @return The message to be recorded.
+     */
+    Object build();
+}
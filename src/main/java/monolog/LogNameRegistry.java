@@ -0,0 +1,22 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+/**
+ * Looks up the `LogName` of a class without reflection.
+ *
+ * An implementation of this is generated by the monolog annotation processor,
+ * and can be installed with `LogNames.setRegistry` at startup.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public interface LogNameRegistry
+{
+    /**
+     * @param type The class to look up.
+     * @return The class's log name, or null if it is not known to the registry.
+     */
+    String getName(Class<?> type);
+}
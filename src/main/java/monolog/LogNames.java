@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * Resolves the `LogName` of classes.
+ *
+ * Names are looked up in the installed registry first, if any, and otherwise
+ * read from the class's annotation once and cached. The cache only holds weak
+ * references to classes, so that it does not keep them from being unloaded.
+ *
+ * Strings, the most common message, are never named and skip the lookup.
+ * The cache is an immutable table that is replaced whenever a class is
+ * added to it, so that looking up a class takes no lock. Classes are only
+ * added the first time they are logged, so the copying stops soon after
+ * the application starts.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class LogNames
+{
+    /**
+     * Cached for classes that have no log name, compared by identity.
+     */
+    @SuppressWarnings("RedundantStringConstructorCall")
+    final private static String UNNAMED = new String("");
+
+    final private static Object CACHE_LOCK = new Object();
+    private static volatile Table cache = new Table(Table.MIN_CAPACITY);
+    private static volatile LogNameRegistry registry;
+
+    private LogNames()
+    {
+    }
+
+    /**
+     * Installs a registry of names to check before reading annotations.
+     *
+     * @param registry Generated registry of log names, or null to remove it.
+     */
+    public static void setRegistry(LogNameRegistry registry)
+    {
+        LogNames.registry = registry;
+    }
+
+    /**
+     * @param type The class to get the log name of.
+     * @return The value of the class's `LogName` annotation, or null if the
+     *         class is not annotated.
+     * @see LogName
+     */
+    public static String getName(Class<?> type)
+    {
+        if (String.class == type) {
+            return null;
+        }
+
+        LogNameRegistry registry = LogNames.registry;
+        if (null != registry) {
+            String name = registry.getName(type);
+            if (null != name) {
+                return name;
+            }
+        }
+
+        String name = cache.get(type);
+        if (null == name) {
+            LogName annotation = type.getAnnotation(LogName.class);
+            name = null == annotation ? UNNAMED : annotation.value();
+
+            synchronized (CACHE_LOCK) {
+                cache = cache.with(type, name);
+            }
+        }
+
+        return UNNAMED == name ? null : name;
+    }
+
+    /**
+     * Open-addressed table of the names of classes, that is never changed
+     * once published.
+     */
+    private static class Table
+    {
+        final private static int MIN_CAPACITY = 16;
+
+        final private WeakReference<Class<?>>[] types;
+        final private String[] names;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Table(int capacity)
+        {
+            this.types = new WeakReference[capacity];
+            this.names = new String[capacity];
+        }
+
+        /**
+         * @return The cached name of the class, or null if it is not cached.
+         */
+        String get(Class<?> type)
+        {
+            int mask = this.types.length - 1;
+            for (int index = System.identityHashCode(type) & mask; true; index = index + 1 & mask) {
+                WeakReference<Class<?>> reference = this.types[index];
+                if (null == reference) {
+                    return null;
+                }
+                if (type == reference.get()) {
+                    return this.names[index];
+                }
+            }
+        }
+
+        /**
+         * Copies the table with a class added to it, leaving out classes
+         * that have been unloaded.
+         *
+         * @return The new table, kept at most half full.
+         */
+        Table with(Class<?> type, String name)
+        {
+            if (null != this.get(type)) {
+                return this;
+            }
+
+            int live = 1;
+            for (WeakReference<Class<?>> reference : this.types) {
+                if (null != reference && null != reference.get()) {
+                    live++;
+                }
+            }
+
+            int capacity = MIN_CAPACITY;
+            while (capacity < live * 2) {
+                capacity *= 2;
+            }
+
+            Table table = new Table(capacity);
+            for (int index = 0; index < this.types.length; index++) {
+                WeakReference<Class<?>> reference = this.types[index];
+                Class<?> existing = null == reference ? null : reference.get();
+                if (null != existing) {
+                    table.put(reference, existing, this.names[index]);
+                }
+            }
+            table.put(new WeakReference<Class<?>>(type), type, name);
+
+            return table;
+        }
+
+        private void put(WeakReference<Class<?>> reference, Class<?> type, String name)
+        {
+            int mask = this.types.length - 1;
+            int index = System.identityHashCode(type) & mask;
+            while (null != this.types[index]) {
+                index = index + 1 & mask;
+            }
+
+            this.types[index] = reference;
+            this.names[index] = name;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+/**
+ * Fills `{}` placeholders in a message template with its arguments.
+ *
+ * Each thread formats into its own reused builder, so the only allocation
+ * when formatting is the resulting string.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final class MessageFormatter
+{
+    final private static String PLACEHOLDER = "{}";
+
+    /**
+     * Builders larger than this are dropped rather than kept for the thread.
+     */
+    final private static int MAX_RETAINED_CAPACITY = 1024;
+
+    final private static ThreadLocal<StringBuilder> BUILDERS = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue()
+        {
+            return new StringBuilder(128);
+        }
+    };
+
+    private MessageFormatter()
+    {
+    }
+
+    /**
+     * Formats a message template.
+     *
+     * Placeholders without a matching argument are left in the message, and
+     * arguments without a matching placeholder are ignored.
+     *
+     * @param template The message containing `{}` placeholders.
+     * @param argumentCount The number of arguments given, up to three.
+     * @param argument1 Value for the first placeholder.
+     * @param argument2 Value for the second placeholder.
+     * @param argument3 Value for the third placeholder.
+     * @return The formatted message.
+     */
+    static String format(
+        String template,
+        int argumentCount,
+        Object argument1,
+        Object argument2,
+        Object argument3
+    ) {
+        if (null == template) {
+            return null;
+        }
+
+        StringBuilder builder = BUILDERS.get();
+        if (null == builder) {
+            // Already formatting on this thread; an argument is logging from
+            // its toString, so give it a builder of its own.
+            builder = new StringBuilder(template.length() + 32);
+        } else {
+            BUILDERS.set(null);
+        }
+
+        try {
+            int start = 0;
+            for (int index = 0; index < argumentCount; index++) {
+                int placeholder = template.indexOf(PLACEHOLDER, start);
+                if (-1 == placeholder) {
+                    break;
+                }
+
+                builder.append(template, start, placeholder);
+                builder.append(index == 0 ? argument1 : index == 1 ? argument2 : argument3);
+                start = placeholder + PLACEHOLDER.length();
+            }
+            builder.append(template, start, template.length());
+
+            return builder.toString();
+        } finally {
+            if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+                builder = new StringBuilder(128);
+            }
+            builder.setLength(0);
+            BUILDERS.set(builder);
+        }
+    }
+}
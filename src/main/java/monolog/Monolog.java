@@ -6,6 +6,12 @@ package monolog;
 
 import monolog.handler.Handler;
 import monolog.handler.HandlerResult;
+import monolog.metrics.DispatchMetrics;
+import monolog.metrics.HandlerMetrics;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Monolog Logger.
@@ -18,13 +24,48 @@ import monolog.handler.HandlerResult;
  * development so that you can be sure there is a handler for ever given error
  * type.
  *
+ * The levels that each handler is enabled for are resolved when the logger is
+ * built into a table of handlers per level, so that records are only sent to
+ * the handlers that can act on them. Log statements at a level that none of
+ * the handlers are enabled for return before a record is created, and can be
+ * checked ahead of time with the `is*Enabled` guards to avoid building
+ * expensive messages.
+ *
+ * The handlers can be replaced while the application runs with
+ * `setHandlers`. The table is resolved again on the next log statement after
+ * the levels of a `SwitchedHandler` change, and on `refresh` for other
+ * handlers whose levels change. Each log statement reads the current table
+ * once, without locking, and is handled entirely by that table.
+ *
+ * Child loggers share their parent's handlers and level tables, and only add
+ * a name that is carried on each of their records as its tag. Creating one
+ * costs a single lookup once a child of the same name exists.
+ *
+ * Each record is stamped with the time, monotonic time and thread of its
+ * log statement, read once before any handler is invoked. The times are read
+ * from the system clock, or from a `CachedClock` given to the logger for a
+ * cheaper read of coarser precision.
+ *
+ * Records are given the context fields of the logger they were logged with,
+ * which are set with `withContext`, and of the thread they were logged on,
+ * which are set with `ThreadContext`. Both are attached by reference.
+ *
+ * A logger built with `DispatchMetrics` times each call to its handlers and
+ * counts what they returned. Without metrics the only cost is a single check
+ * per record.
+ *
  * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
  */
 @SuppressWarnings("UnusedDeclaration")
 public class Monolog
 {
-    final private Handler[] handlers;
     final private boolean allowUnhandled;
+    final private boolean reuseRecords;
+    final private Clock clock;
+    final private AtomicReference<Routing> routing;
+    final private String name;
+    final private Context context;
+    final private ConcurrentMap<String, Monolog> children = new ConcurrentHashMap<String, Monolog>(4, 0.75f, 1);
 
     public Monolog(Handler[] handlers)
     {
@@ -40,37 +81,405 @@ public class Monolog
      */
     public Monolog(Handler[] handlers, boolean allowUnhandled)
     {
-        if (0 == handlers.length) {
-            throw new IllegalArgumentException("You are required to add at least one handler.");
-        }
+        this(handlers, allowUnhandled, false);
+    }
+
+    /**
+     * @param handlers serviced to be invoked, in order, to send messages to
+     *                 various logs.
+     * @param allowUnhandled whether to allow log records to be unhandled by any
+     *                       of the specified handlers without error.
+     * @param reuseRecords whether to reuse a pool of records rather than
+     *                     creating a record for each log statement. Handlers
+     *                     must then `copy()` any record they keep after
+     *                     handling it.
+     * @throws IllegalArgumentException if an empty set of handlers is provided.
+     */
+    public Monolog(Handler[] handlers, boolean allowUnhandled, boolean reuseRecords)
+    {
+        this(handlers, allowUnhandled, reuseRecords, null);
+    }
 
+    /**
+     * @param handlers serviced to be invoked, in order, to send messages to
+     *                 various logs.
+     * @param allowUnhandled whether to allow log records to be unhandled by any
+     *                       of the specified handlers without error.
+     * @param reuseRecords whether to reuse a pool of records rather than
+     *                     creating a record for each log statement. Handlers
+     *                     must then `copy()` any record they keep after
+     *                     handling it.
+     * @param metrics Collects the result counts and latency of each handler,
+     *                or null to invoke the handlers without measuring them.
+     * @throws IllegalArgumentException if an empty set of handlers is provided.
+     */
+    public Monolog(Handler[] handlers, boolean allowUnhandled, boolean reuseRecords, DispatchMetrics metrics)
+    {
+        this(handlers, allowUnhandled, reuseRecords, metrics, Clock.SYSTEM);
+    }
+
+    /**
+     * @param handlers serviced to be invoked, in order, to send messages to
+     *                 various logs.
+     * @param allowUnhandled whether to allow log records to be unhandled by any
+     *                       of the specified handlers without error.
+     * @param reuseRecords whether to reuse a pool of records rather than
+     *                     creating a record for each log statement. Handlers
+     *                     must then `copy()` any record they keep after
+     *                     handling it.
+     * @param metrics Collects the result counts and latency of each handler,
+     *                or null to invoke the handlers without measuring them.
+     * @param clock Source of the time to stamp each record with, such as a
+     *              `CachedClock` shared with other loggers.
+     * @throws IllegalArgumentException if an empty set of handlers is provided.
+     */
+    public Monolog(
+        Handler[] handlers,
+        boolean allowUnhandled,
+        boolean reuseRecords,
+        DispatchMetrics metrics,
+        Clock clock
+    ) {
         this.allowUnhandled = allowUnhandled;
-        this.handlers = handlers;
+        this.reuseRecords = reuseRecords;
+        this.clock = null == clock ? Clock.SYSTEM : clock;
+        this.routing = new AtomicReference<Routing>(new Routing(handlers, metrics));
+        this.name = null;
+        this.context = Context.EMPTY;
+    }
+
+    /**
+     * Creates a logger that shares the handlers of its parent.
+     *
+     * @param parent The logger to share the handlers and settings of.
+     * @param name Full name of the new logger.
+     * @param context Fields to attach to each of the new logger's records.
+     */
+    private Monolog(Monolog parent, String name, Context context)
+    {
+        this.allowUnhandled = parent.allowUnhandled;
+        this.reuseRecords = parent.reuseRecords;
+        this.clock = parent.clock;
+        this.routing = parent.routing;
+        this.name = name;
+        this.context = context;
+    }
+
+    /**
+     * Replaces the chain of handlers.
+     *
+     * Takes effect for this logger and every logger that shares its handlers,
+     * such as its children. Records that are already being handled finish
+     * with the handlers they started with.
+     *
+     * @param handlers serviced to be invoked, in order, to send messages to
+     *                 various logs.
+     * @throws IllegalArgumentException if an empty set of handlers is provided.
+     */
+    final public void setHandlers(Handler[] handlers)
+    {
+        while (true) {
+            Routing current = this.routing.get();
+            Routing replacement = new Routing(handlers, current.metrics);
+            if (this.routing.compareAndSet(current, replacement)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return A copy of the chain of handlers.
+     */
+    final public Handler[] getHandlers()
+    {
+        return this.routing.get().handlers.clone();
+    }
+
+    /**
+     * Checks the levels that each handler is enabled for again.
+     *
+     * The levels are resolved into a table when the handlers are set, and
+     * again once the levels of a `SwitchedHandler` change. Other handlers
+     * that change the levels they are enabled for must have this invoked for
+     * the change to take effect.
+     */
+    final public void refresh()
+    {
+        while (true) {
+            Routing current = this.routing.get();
+            Routing replacement = new Routing(current.handlers, current.metrics);
+            if (this.routing.compareAndSet(current, replacement)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The current routing, resolved again first if the levels of a
+     *         switched handler have changed since it was built.
+     */
+    private Routing getRouting()
+    {
+        while (true) {
+            Routing current = this.routing.get();
+            if (false == current.isStale()) {
+                return current;
+            }
+
+            Routing replacement = new Routing(current.handlers, current.metrics);
+            if (this.routing.compareAndSet(current, replacement)) {
+                return replacement;
+            }
+        }
+    }
+
+    /**
+     * Get a logger that tags its records with a name.
+     *
+     * The child sends its records through the same handlers as this logger.
+     * Children are cached, so the same name always returns the same logger.
+     * A child of a named logger is named after both, separated by a dot.
+     * Children start with the context fields of this logger.
+     *
+     * @param name Name to tag the child's records with.
+     * @return The child logger with the name.
+     */
+    final public Monolog child(String name)
+    {
+        Monolog child = this.children.get(name);
+        if (null != child) {
+            return child;
+        }
+
+        Monolog created = new Monolog(this, null == this.name ? name : this.name + "." + name, this.context);
+        child = this.children.putIfAbsent(name, created);
+
+        return null == child ? created : child;
+    }
+
+    /**
+     * Get a logger that attaches a context field to each of its records.
+     *
+     * The logger shares this logger's handlers and name. Unlike children,
+     * these loggers are not cached, and are meant to be kept for as long as
+     * the field describes, such as for a session.
+     *
+     * @param key Name of the field.
+     * @param value Value of the field, or null to remove it.
+     * @return A logger with the field added to this logger's context.
+     */
+    final public Monolog withContext(String key, Object value)
+    {
+        return new Monolog(this, this.name, this.context.with(key, value));
+    }
+
+    /**
+     * @return Fields that this logger attaches to each of its records.
+     */
+    final public Context getContext()
+    {
+        return this.context;
+    }
+
+    /**
+     * @return Name that this logger tags its records with, or null if this
+     *         is not a child logger.
+     */
+    final public String getName()
+    {
+        return this.name;
+    }
+
+    /**
+     * @param level The severity level to check.
+     * @return Whether any of the handlers will act on records of the level.
+     */
+    final public boolean isEnabled(LogLevel level)
+    {
+        return 0 != this.getRouting().routes[level.ordinal()].length;
+    }
+
+    /**
+     * @return Whether any of the handlers will act on trace records.
+     */
+    final public boolean isTraceEnabled()
+    {
+        return 0 != this.getRouting().routes[LogLevel.TRACE.ordinal()].length;
+    }
+
+    /**
+     * @return Whether any of the handlers will act on debug records.
+     */
+    final public boolean isDebugEnabled()
+    {
+        return 0 != this.getRouting().routes[LogLevel.DEBUG.ordinal()].length;
+    }
+
+    /**
+     * @return Whether any of the handlers will act on info records.
+     */
+    final public boolean isInfoEnabled()
+    {
+        return 0 != this.getRouting().routes[LogLevel.INFO.ordinal()].length;
+    }
+
+    /**
+     * @return Whether any of the handlers will act on warn records.
+     */
+    final public boolean isWarnEnabled()
+    {
+        return 0 != this.getRouting().routes[LogLevel.WARN.ordinal()].length;
+    }
+
+    /**
+     * @return Whether any of the handlers will act on error records.
+     */
+    final public boolean isErrorEnabled()
+    {
+        return 0 != this.getRouting().routes[LogLevel.ERROR.ordinal()].length;
+    }
+
+    /**
+     * @return Whether any of the handlers will act on fatal records.
+     */
+    final public boolean isFatalEnabled()
+    {
+        return 0 != this.getRouting().routes[LogLevel.FATAL.ordinal()].length;
     }
 
     /**
      * Logs a message with the specified level.
      *
      * @param level The severity/class of the log statement.
-     * @param message The message to be recorded.
+     * @param message The message to be recorded. A `LazyMessage` can be used
+     *                to defer building the message until a handler needs it.
      * @param cause Optional root-cause of the issue being described.
      */
     public void log(LogLevel level, Object message, Throwable cause)
     {
-        Record record = new Record(level, message, cause);
+        this.log(level, message, cause, 0, null, null, null);
+    }
 
-        this.notifyHandlers(record);
+    /**
+     * Logs a message template with one argument and the specified level.
+     *
+     * The template is only formatted once a handler renders the message.
+     *
+     * @param level The severity/class of the log statement.
+     * @param template The message to be recorded, with a `{}` placeholder.
+     * @param argument1 Value for the first placeholder.
+     * @param cause Optional root-cause of the issue being described.
+     */
+    public void log(LogLevel level, String template, Object argument1, Throwable cause)
+    {
+        this.log(level, template, cause, 1, argument1, null, null);
+    }
+
+    /**
+     * Logs a message template with two arguments and the specified level.
+     *
+     * The template is only formatted once a handler renders the message.
+     *
+     * @param level The severity/class of the log statement.
+     * @param template The message to be recorded, with `{}` placeholders.
+     * @param argument1 Value for the first placeholder.
+     * @param argument2 Value for the second placeholder.
+     * @param cause Optional root-cause of the issue being described.
+     */
+    public void log(LogLevel level, String template, Object argument1, Object argument2, Throwable cause)
+    {
+        this.log(level, template, cause, 2, argument1, argument2, null);
+    }
+
+    /**
+     * Logs a message template with three arguments and the specified level.
+     *
+     * The template is only formatted once a handler renders the message.
+     *
+     * @param level The severity/class of the log statement.
+     * @param template The message to be recorded, with `{}` placeholders.
+     * @param argument1 Value for the first placeholder.
+     * @param argument2 Value for the second placeholder.
+     * @param argument3 Value for the third placeholder.
+     * @param cause Optional root-cause of the issue being described.
+     */
+    public void log(
+        LogLevel level,
+        String template,
+        Object argument1,
+        Object argument2,
+        Object argument3,
+        Throwable cause
+    ) {
+        this.log(level, template, cause, 3, argument1, argument2, argument3);
+    }
+
+    private void log(
+        LogLevel level,
+        Object message,
+        Throwable cause,
+        int argumentCount,
+        Object argument1,
+        Object argument2,
+        Object argument3
+    ) {
+        Routing routing = this.getRouting();
+        if (0 == routing.routes[level.ordinal()].length) {
+            this.notifyUnhandled();
+            return;
+        }
+
+        long timestamp = this.clock.currentTimeMillis();
+        long nanoTime = this.clock.nanoTime();
+        long threadId = Thread.currentThread().getId();
+
+        if (false == this.reuseRecords) {
+            this.notifyHandlers(routing, new Record(timestamp, nanoTime, threadId, this.name, this.context, ThreadContext.current(), level, message, cause, argumentCount, argument1, argument2, argument3));
+            return;
+        }
+
+        RecordPool pool = RecordPool.current();
+        Record record = pool.acquire(timestamp, nanoTime, threadId, this.name, this.context, ThreadContext.current(), level, message, cause, argumentCount, argument1, argument2, argument3);
+        try {
+            this.notifyHandlers(routing, record);
+        } finally {
+            pool.release(record);
+        }
     }
 
     /**
      * Sends the record through the chain of handlers until handled or finished.
      *
+     * Only the handlers enabled for the record's level are invoked, since the
+     * rest would pass on the record without acting on it.
+     * When the logger is instrumented, each handler call is measured.
+     *
      * @param record The log to notify handlers of.
      */
     final protected void notifyHandlers(Record record)
     {
+        this.notifyHandlers(this.getRouting(), record);
+    }
+
+    /**
+     * Sends the record through the chain of handlers of a routing.
+     *
+     * The routing is read once for each record, so that the record is handled
+     * by a single chain even if the handlers are replaced meanwhile.
+     *
+     * @param routing The handlers to invoke.
+     * @param record The log to notify handlers of.
+     */
+    private void notifyHandlers(Routing routing, Record record)
+    {
+        int level = record.getLevel().ordinal();
+        if (null != routing.meters) {
+            this.notifyMeasured(record, routing.routes[level], routing.meters[level]);
+            return;
+        }
+
         boolean handled = false;
-        for (Handler handler : this.handlers) {
+        for (Handler handler : routing.routes[level]) {
             HandlerResult result = handler.handle(record);
 
             if (result == HandlerResult.HANDLED) {
@@ -81,7 +490,61 @@ public class Monolog
             }
         }
 
-        if (false == handled && false == this.allowUnhandled) {
+        if (false == handled) {
+            this.notifyUnhandled();
+        }
+    }
+
+    /**
+     * Sends the record through the chain of handlers while counting the
+     * results and timing each call.
+     *
+     * Each handler's call ends when the next one starts, so that the chain
+     * reads the clock once per handler.
+     *
+     * @param record The log to notify handlers of.
+     * @param route Handlers enabled for the record's level.
+     * @param meters Metrics in the same positions as the handlers.
+     */
+    private void notifyMeasured(Record record, Handler[] route, HandlerMetrics[] meters)
+    {
+        boolean handled = false;
+        long start = System.nanoTime();
+        for (int i = 0; i < route.length; i++) {
+            HandlerResult result;
+            try {
+                result = route[i].handle(record);
+            } catch (RuntimeException e) {
+                meters[i].recordFailure(System.nanoTime() - start);
+                throw e;
+            }
+
+            long end = System.nanoTime();
+            meters[i].record(result, end - start);
+            start = end;
+
+            if (result == HandlerResult.HANDLED) {
+                handled = true;
+            }
+            if (result == HandlerResult.FINISHED) {
+                return;
+            }
+        }
+
+        if (false == handled) {
+            this.notifyUnhandled();
+        }
+    }
+
+    /**
+     * Fails on a record that none of the handlers dealt with, unless unhandled
+     * records are allowed.
+     *
+     * @throws IllegalArgumentException if unhandled records are not allowed.
+     */
+    private void notifyUnhandled()
+    {
+        if (false == this.allowUnhandled) {
             throw new IllegalArgumentException("No handlers available to handle logged object");
         }
     }
@@ -107,6 +570,53 @@ public class Monolog
         this.log(LogLevel.DEBUG, message, cause);
     }
 
+    /**
+     * Logs an error with debug log level.
+     *
+     * @param message log this message
+     * @param cause log this cause
+     */
+    final public void debug(String message, Throwable cause)
+    {
+        this.log(LogLevel.DEBUG, (Object) message, cause);
+    }
+
+    /**
+     * Logs a message template with debug log level.
+     *
+     * @param template log this message, with a `{}` placeholder
+     * @param argument1 value for the first placeholder
+     */
+    final public void debug(String template, Object argument1)
+    {
+        this.log(LogLevel.DEBUG, template, argument1, null);
+    }
+
+    /**
+     * Logs a message template with debug log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     */
+    final public void debug(String template, Object argument1, Object argument2)
+    {
+        this.log(LogLevel.DEBUG, template, argument1, argument2, null);
+    }
+
+    /**
+     * Logs a message template with debug log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     * @param argument3 value for the third placeholder
+     */
+    final public void debug(String template, Object argument1, Object argument2, Object argument3)
+    {
+        this.log(LogLevel.DEBUG, template, argument1, argument2, argument3, null);
+    }
+
     /**
      * Logs a message with error log level.
      *
@@ -128,6 +638,53 @@ public class Monolog
         this.log(LogLevel.ERROR, message, cause);
     }
 
+    /**
+     * Logs an error with error log level.
+     *
+     * @param message log this message
+     * @param cause log this cause
+     */
+    final public void error(String message, Throwable cause)
+    {
+        this.log(LogLevel.ERROR, (Object) message, cause);
+    }
+
+    /**
+     * Logs a message template with error log level.
+     *
+     * @param template log this message, with a `{}` placeholder
+     * @param argument1 value for the first placeholder
+     */
+    final public void error(String template, Object argument1)
+    {
+        this.log(LogLevel.ERROR, template, argument1, null);
+    }
+
+    /**
+     * Logs a message template with error log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     */
+    final public void error(String template, Object argument1, Object argument2)
+    {
+        this.log(LogLevel.ERROR, template, argument1, argument2, null);
+    }
+
+    /**
+     * Logs a message template with error log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     * @param argument3 value for the third placeholder
+     */
+    final public void error(String template, Object argument1, Object argument2, Object argument3)
+    {
+        this.log(LogLevel.ERROR, template, argument1, argument2, argument3, null);
+    }
+
     /**
      * Logs a message with fatal log level.
      *
@@ -149,6 +706,53 @@ public class Monolog
         this.log(LogLevel.FATAL, message, cause);
     }
 
+    /**
+     * Logs an error with fatal log level.
+     *
+     * @param message log this message
+     * @param cause log this cause
+     */
+    final public void fatal(String message, Throwable cause)
+    {
+        this.log(LogLevel.FATAL, (Object) message, cause);
+    }
+
+    /**
+     * Logs a message template with fatal log level.
+     *
+     * @param template log this message, with a `{}` placeholder
+     * @param argument1 value for the first placeholder
+     */
+    final public void fatal(String template, Object argument1)
+    {
+        this.log(LogLevel.FATAL, template, argument1, null);
+    }
+
+    /**
+     * Logs a message template with fatal log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     */
+    final public void fatal(String template, Object argument1, Object argument2)
+    {
+        this.log(LogLevel.FATAL, template, argument1, argument2, null);
+    }
+
+    /**
+     * Logs a message template with fatal log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     * @param argument3 value for the third placeholder
+     */
+    final public void fatal(String template, Object argument1, Object argument2, Object argument3)
+    {
+        this.log(LogLevel.FATAL, template, argument1, argument2, argument3, null);
+    }
+
     /**
      * Logs a message with info log level.
      *
@@ -170,6 +774,53 @@ public class Monolog
         this.log(LogLevel.INFO, message, cause);
     }
 
+    /**
+     * Logs an error with info log level.
+     *
+     * @param message log this message
+     * @param cause log this cause
+     */
+    final public void info(String message, Throwable cause)
+    {
+        this.log(LogLevel.INFO, (Object) message, cause);
+    }
+
+    /**
+     * Logs a message template with info log level.
+     *
+     * @param template log this message, with a `{}` placeholder
+     * @param argument1 value for the first placeholder
+     */
+    final public void info(String template, Object argument1)
+    {
+        this.log(LogLevel.INFO, template, argument1, null);
+    }
+
+    /**
+     * Logs a message template with info log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     */
+    final public void info(String template, Object argument1, Object argument2)
+    {
+        this.log(LogLevel.INFO, template, argument1, argument2, null);
+    }
+
+    /**
+     * Logs a message template with info log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     * @param argument3 value for the third placeholder
+     */
+    final public void info(String template, Object argument1, Object argument2, Object argument3)
+    {
+        this.log(LogLevel.INFO, template, argument1, argument2, argument3, null);
+    }
+
     /**
      * Logs a message with trace log level.
      *
@@ -191,6 +842,53 @@ public class Monolog
         this.log(LogLevel.TRACE, message, cause);
     }
 
+    /**
+     * Logs an error with trace log level.
+     *
+     * @param message log this message
+     * @param cause log this cause
+     */
+    final public void trace(String message, Throwable cause)
+    {
+        this.log(LogLevel.TRACE, (Object) message, cause);
+    }
+
+    /**
+     * Logs a message template with trace log level.
+     *
+     * @param template log this message, with a `{}` placeholder
+     * @param argument1 value for the first placeholder
+     */
+    final public void trace(String template, Object argument1)
+    {
+        this.log(LogLevel.TRACE, template, argument1, null);
+    }
+
+    /**
+     * Logs a message template with trace log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     */
+    final public void trace(String template, Object argument1, Object argument2)
+    {
+        this.log(LogLevel.TRACE, template, argument1, argument2, null);
+    }
+
+    /**
+     * Logs a message template with trace log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     * @param argument3 value for the third placeholder
+     */
+    final public void trace(String template, Object argument1, Object argument2, Object argument3)
+    {
+        this.log(LogLevel.TRACE, template, argument1, argument2, argument3, null);
+    }
+
     /**
      * Logs a message with warn log level.
      *
@@ -211,4 +909,51 @@ public class Monolog
     {
         this.log(LogLevel.WARN, message, cause);
     }
+
+    /**
+     * Logs an error with warn log level.
+     *
+     * @param message log this message
+     * @param cause log this cause
+     */
+    final public void warn(String message, Throwable cause)
+    {
+        this.log(LogLevel.WARN, (Object) message, cause);
+    }
+
+    /**
+     * Logs a message template with warn log level.
+     *
+     * @param template log this message, with a `{}` placeholder
+     * @param argument1 value for the first placeholder
+     */
+    final public void warn(String template, Object argument1)
+    {
+        this.log(LogLevel.WARN, template, argument1, null);
+    }
+
+    /**
+     * Logs a message template with warn log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     */
+    final public void warn(String template, Object argument1, Object argument2)
+    {
+        this.log(LogLevel.WARN, template, argument1, argument2, null);
+    }
+
+    /**
+     * Logs a message template with warn log level.
+     *
+     * @param template log this message, with `{}` placeholders
+     * @param argument1 value for the first placeholder
+     * @param argument2 value for the second placeholder
+     * @param argument3 value for the third placeholder
+     */
+    final public void warn(String template, Object argument1, Object argument2, Object argument3)
+    {
+        this.log(LogLevel.WARN, template, argument1, argument2, argument3, null);
+    }
 }
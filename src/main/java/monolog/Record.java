@@ -7,22 +7,329 @@ package monolog;
 /**
  * Container object for all metadata for the original log statement.
  *
+ * Lazy messages are built the first time the message is requested, and the
+ * message's string form is rendered at most once, so that every handler
+ * in the chain shares the same result.
+ * Messages logged as a template with arguments keep the two separate, and
+ * are only formatted when the message is requested.
+ *
+ * The time, monotonic time and thread of the log statement are read once
+ * when it is logged, so that every handler sees the same values however
+ * late it gets to the record. Records created directly, rather than by a
+ * logger, read them when they are created.
+ *
+ * Records logged through a named child logger carry the logger's name as a
+ * tag, for handlers to label the record with. Context fields of the logger
+ * and of the logging thread are attached by reference, and only combined if
+ * a handler asks for all of them at once.
+ *
+ * A logger that reuses records will refill the same record for a later log
+ * statement once the handlers have returned. Handlers that need to keep a
+ * record after `handle` returns must keep a `copy()` of it instead.
+ *
  * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
  */
 public class Record
 {
-    final private LogLevel level;
-    final private Object message;
-    final private Throwable cause;
+    /**
+     * Placeholder for a lazy message that has not been built yet.
+     */
+    final private static Object UNBUILT = new Object();
+
+    final private boolean pooled;
+    private long timestamp;
+    private long nanoTime;
+    private long threadId;
+    private String tag;
+    private Context loggerContext;
+    private Context threadContext;
+    private LogLevel level;
+    private Object message;
+    private Throwable cause;
+    private int argumentCount;
+    private Object argument1;
+    private Object argument2;
+    private Object argument3;
+    private volatile Object builtMessage = UNBUILT;
+    private volatile String messageString;
+    private volatile Context context;
 
     public Record(
         LogLevel level,
         Object message,
         Throwable cause
     ) {
+        this(
+            System.currentTimeMillis(),
+            System.nanoTime(),
+            Thread.currentThread().getId(),
+            null,
+            Context.EMPTY,
+            Context.EMPTY,
+            level,
+            message,
+            cause,
+            0,
+            null,
+            null,
+            null
+        );
+    }
+
+    /**
+     * @param level The severity level of the log statement.
+     * @param template Message containing a `{}` placeholder for each argument.
+     * @param argumentCount The number of arguments given, up to three.
+     * @param argument1 Value for the first placeholder.
+     * @param argument2 Value for the second placeholder.
+     * @param argument3 Value for the third placeholder.
+     * @param cause Optional root-cause of the issue being described.
+     */
+    public Record(
+        LogLevel level,
+        String template,
+        int argumentCount,
+        Object argument1,
+        Object argument2,
+        Object argument3,
+        Throwable cause
+    ) {
+        this(null, level, template, argumentCount, argument1, argument2, argument3, cause);
+    }
+
+    /**
+     * @param tag Name of the logger that the statement was logged with.
+     * @param level The severity level of the log statement.
+     * @param template Message containing a `{}` placeholder for each argument.
+     * @param argumentCount The number of arguments given, up to three.
+     * @param argument1 Value for the first placeholder.
+     * @param argument2 Value for the second placeholder.
+     * @param argument3 Value for the third placeholder.
+     * @param cause Optional root-cause of the issue being described.
+     */
+    public Record(
+        String tag,
+        LogLevel level,
+        String template,
+        int argumentCount,
+        Object argument1,
+        Object argument2,
+        Object argument3,
+        Throwable cause
+    ) {
+        this(tag, Context.EMPTY, level, template, argumentCount, argument1, argument2, argument3, cause);
+    }
+
+    /**
+     * @param tag Name of the logger that the statement was logged with.
+     * @param context Fields describing where the statement was logged.
+     * @param level The severity level of the log statement.
+     * @param template Message containing a `{}` placeholder for each argument.
+     * @param argumentCount The number of arguments given, up to three.
+     * @param argument1 Value for the first placeholder.
+     * @param argument2 Value for the second placeholder.
+     * @param argument3 Value for the third placeholder.
+     * @param cause Optional root-cause of the issue being described.
+     */
+    public Record(
+        String tag,
+        Context context,
+        LogLevel level,
+        String template,
+        int argumentCount,
+        Object argument1,
+        Object argument2,
+        Object argument3,
+        Throwable cause
+    ) {
+        this(
+            System.currentTimeMillis(),
+            System.nanoTime(),
+            Thread.currentThread().getId(),
+            tag,
+            null == context ? Context.EMPTY : context,
+            Context.EMPTY,
+            level,
+            template,
+            cause,
+            argumentCount,
+            argument1,
+            argument2,
+            argument3
+        );
+    }
+
+    Record(
+        long timestamp,
+        long nanoTime,
+        long threadId,
+        String tag,
+        Context loggerContext,
+        Context threadContext,
+        LogLevel level,
+        Object message,
+        Throwable cause,
+        int argumentCount,
+        Object argument1,
+        Object argument2,
+        Object argument3
+    ) {
+        this.pooled = false;
+        this.set(timestamp, nanoTime, threadId, tag, loggerContext, threadContext, level, message, cause, argumentCount, argument1, argument2, argument3);
+    }
+
+    /**
+     * Creates an empty record to be filled and reused by a record pool.
+     */
+    Record()
+    {
+        this.pooled = true;
+    }
+
+    /**
+     * Fills the record with a new log statement, discarding any message that
+     * was rendered for the previous one.
+     */
+    final void set(
+        long timestamp,
+        long nanoTime,
+        long threadId,
+        String tag,
+        Context loggerContext,
+        Context threadContext,
+        LogLevel level,
+        Object message,
+        Throwable cause,
+        int argumentCount,
+        Object argument1,
+        Object argument2,
+        Object argument3
+    ) {
+        if (argumentCount < 0 || argumentCount > 3) {
+            throw new IllegalArgumentException("Records hold between zero and three template arguments.");
+        }
+
+        this.timestamp = timestamp;
+        this.nanoTime = nanoTime;
+        this.threadId = threadId;
+        this.tag = tag;
+        this.loggerContext = loggerContext;
+        this.threadContext = threadContext;
         this.level = level;
         this.message = message;
+        this.argumentCount = argumentCount;
+        this.argument1 = argument1;
+        this.argument2 = argument2;
+        this.argument3 = argument3;
         this.cause = cause;
+        this.forgetRendered();
+    }
+
+    /**
+     * Releases the references held by a pooled record.
+     *
+     * The times and argument count are left as they are, since they hold no
+     * references and are replaced by the next `set`.
+     */
+    final void clear()
+    {
+        this.tag = null;
+        this.loggerContext = Context.EMPTY;
+        this.threadContext = Context.EMPTY;
+        this.level = null;
+        this.message = null;
+        this.cause = null;
+        this.argument1 = null;
+        this.argument2 = null;
+        this.argument3 = null;
+        this.forgetRendered();
+    }
+
+    /**
+     * Discards the message and context rendered for the previous statement.
+     *
+     * Each write to a volatile field costs a memory barrier, so only the
+     * results that were actually rendered are reset.
+     */
+    private void forgetRendered()
+    {
+        if (UNBUILT != this.builtMessage) {
+            this.builtMessage = UNBUILT;
+        }
+        if (null != this.messageString) {
+            this.messageString = null;
+        }
+        if (null != this.context) {
+            this.context = null;
+        }
+    }
+
+    /**
+     * Get a record that is safe to keep after the handler returns.
+     *
+     * Records that are not reused by a pool are returned as-is. Pooled
+     * records are copied, along with any message already rendered for them.
+     *
+     * @return A record with the same contents that will not be reused.
+     */
+    final public Record copy()
+    {
+        if (false == this.pooled) {
+            return this;
+        }
+
+        Record copy = new Record(
+            this.timestamp,
+            this.nanoTime,
+            this.threadId,
+            this.tag,
+            this.loggerContext,
+            this.threadContext,
+            this.level,
+            this.message,
+            this.cause,
+            this.argumentCount,
+            this.argument1,
+            this.argument2,
+            this.argument3
+        );
+        copy.builtMessage = this.builtMessage;
+        copy.messageString = this.messageString;
+        copy.context = this.context;
+
+        return copy;
+    }
+
+    /**
+     * @return The time the message was logged, in milliseconds since the epoch.
+     */
+    final public long getTimestamp()
+    {
+        return this.timestamp;
+    }
+
+    /**
+     * Get the monotonic time the message was logged.
+     *
+     * Like `System.nanoTime`, the value only means something when compared
+     * with another from the same clock, such as to measure the time between
+     * two records, or how long a record waited to be handled. Loggers read it
+     * from their `Clock`, which reads `System.nanoTime` unless configured
+     * otherwise.
+     *
+     * @return The monotonic time when the message was logged, in nanoseconds.
+     */
+    final public long getNanoTime()
+    {
+        return this.nanoTime;
+    }
+
+    /**
+     * @return The ID of the thread the message was logged on.
+     */
+    final public long getThreadId()
+    {
+        return this.threadId;
     }
 
     /**
@@ -33,6 +340,51 @@ public class Record
         return this.cause;
     }
 
+    /**
+     * @return Name of the logger that the message was logged with, or null if
+     *         it was logged without a name.
+     */
+    final public String getTag()
+    {
+        return this.tag;
+    }
+
+    /**
+     * Get all of the context fields the message was logged with.
+     *
+     * Fields of the logging thread take the place of the logger's fields of
+     * the same name. The two are only combined if both have fields, and then
+     * only once for each record.
+     *
+     * @return The context fields, or an empty context if there are none.
+     */
+    final public Context getContext()
+    {
+        Context context = this.context;
+        if (null == context) {
+            context = this.loggerContext.withAll(this.threadContext);
+            this.context = context;
+        }
+
+        return context;
+    }
+
+    /**
+     * Get a single context field, without combining the contexts.
+     *
+     * @param key Name of the field.
+     * @return The value of the field, or null if it was not set.
+     */
+    final public Object getField(String key)
+    {
+        Object value = this.threadContext.get(key);
+        if (null != value) {
+            return value;
+        }
+
+        return this.loggerContext.get(key);
+    }
+
     /**
      * @return The severity level that the message was logged with.
      */
@@ -42,13 +394,134 @@ public class Record
     }
 
     /**
-     * @return The root message that was logged.
+     * Get the message as it was logged, without building or formatting it.
+     *
+     * This is the `LazyMessage` itself for lazy messages, and the template
+     * for messages logged with template arguments.
+     *
+     * @return The logged message, or null if no message was logged.
      */
-    final public Object getMessage()
+    final public Object getRawMessage()
     {
         return this.message;
     }
 
+    /**
+     * @return The message template, if the message was logged with template
+     *         arguments, or null otherwise.
+     */
+    final public String getTemplate()
+    {
+        if (0 == this.argumentCount) {
+            return null;
+        }
+
+        return (String) this.message;
+    }
+
+    /**
+     * @return The number of template arguments logged with the message.
+     */
+    final public int getArgumentCount()
+    {
+        return this.argumentCount;
+    }
+
+    /**
+     * @param index The position of the argument, starting at zero.
+     * @return The template argument logged at the position.
+     * @throws IndexOutOfBoundsException if there is no argument at the index.
+     */
+    final public Object getArgument(int index)
+    {
+        if (index < 0 || index >= this.argumentCount) {
+            throw new IndexOutOfBoundsException("No template argument at index " + index);
+        }
+
+        switch (index) {
+            case 0:
+                return this.argument1;
+            case 1:
+                return this.argument2;
+            default:
+                return this.argument3;
+        }
+    }
+
+    /**
+     * @return The root message that was logged, built if it was logged as a
+     *         lazy message, or formatted if it was logged with template
+     *         arguments.
+     * @see LazyMessage
+     */
+    final public Object getMessage()
+    {
+        if (0 != this.argumentCount) {
+            return this.getMessageString();
+        }
+        if (false == this.message instanceof LazyMessage) {
+            return this.message;
+        }
+
+        Object built = this.builtMessage;
+        if (UNBUILT == built) {
+            synchronized (this) {
+                built = this.builtMessage;
+                if (UNBUILT == built) {
+                    built = ((LazyMessage) this.message).build();
+                    this.builtMessage = built;
+                }
+            }
+        }
+
+        return built;
+    }
+
+    /**
+     * Get the string form of the logged message.
+     *
+     * The string is rendered once and shared between every caller.
+     *
+     * @return The logged message as a string, or null if no message was logged.
+     */
+    final public String getMessageString()
+    {
+        String rendered = this.messageString;
+        if (null != rendered) {
+            return rendered;
+        }
+
+        Object message = 0 == this.argumentCount ? this.getMessage() : this.message;
+        if (null == message) {
+            return null;
+        }
+
+        synchronized (this) {
+            rendered = this.messageString;
+            if (null == rendered) {
+                rendered = this.render(message);
+                this.messageString = rendered;
+            }
+        }
+
+        return rendered;
+    }
+
+    private String render(Object message)
+    {
+        if (0 == this.argumentCount) {
+            return message.toString();
+        }
+
+        return MessageFormatter.format(
+            (String) message,
+            this.argumentCount,
+            this.argument1,
+            this.argument2,
+            this.argument3
+        );
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -67,7 +540,12 @@ public class Record
         if (level != record.level) {
             return false;
         }
-        if (message != null ? !message.equals(record.message) : record.message != null) {
+        if (tag != null ? !tag.equals(record.tag) : record.tag != null) {
+            return false;
+        }
+        Object message = this.getMessage();
+        Object otherMessage = record.getMessage();
+        if (message != null ? !message.equals(otherMessage) : otherMessage != null) {
             return false;
         }
 
@@ -77,9 +555,11 @@ public class Record
     @Override
     public int hashCode()
     {
+        Object message = this.getMessage();
         int result = level.hashCode();
         result = 31 * result + (message != null ? message.hashCode() : 0);
         result = 31 * result + (cause != null ? cause.hashCode() : 0);
+        result = 31 * result + (tag != null ? tag.hashCode() : 0);
         return result;
     }
 }
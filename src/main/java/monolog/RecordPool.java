@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+/**
+ * Per-thread store of reusable records.
+ *
+ * Each thread keeps a small stack of records, so that a handler that logs
+ * while handling a record gets a record of its own. When the stack is used
+ * up, new records are created that will not be reused.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final class RecordPool
+{
+    /**
+     * Number of nested log statements per thread that can reuse a record.
+     */
+    final private static int DEPTH = 4;
+
+    final private static ThreadLocal<RecordPool> POOLS = new ThreadLocal<RecordPool>() {
+        @Override
+        protected RecordPool initialValue()
+        {
+            return new RecordPool();
+        }
+    };
+
+    final private Record[] records = new Record[DEPTH];
+    private int depth = 0;
+
+    private RecordPool()
+    {
+    }
+
+    /**
+     * @return The pool of the current thread.
+     */
+    static RecordPool current()
+    {
+        return POOLS.get();
+    }
+
+    /**
+     * Get a record filled with a log statement, reused if possible.
+     *
+     * Must be invoked on the thread that the pool belongs to, and records
+     * must be released in the reverse order that they were acquired.
+     */
+    Record acquire(
+        long timestamp,
+        long nanoTime,
+        long threadId,
+        String tag,
+        Context loggerContext,
+        Context threadContext,
+        LogLevel level,
+        Object message,
+        Throwable cause,
+        int argumentCount,
+        Object argument1,
+        Object argument2,
+        Object argument3
+    ) {
+        if (this.depth == DEPTH) {
+            return new Record(timestamp, nanoTime, threadId, tag, loggerContext, threadContext, level, message, cause, argumentCount, argument1, argument2, argument3);
+        }
+
+        Record record = this.records[this.depth];
+        if (null == record) {
+            record = new Record();
+            this.records[this.depth] = record;
+        }
+        this.depth++;
+        record.set(timestamp, nanoTime, threadId, tag, loggerContext, threadContext, level, message, cause, argumentCount, argument1, argument2, argument3);
+
+        return record;
+    }
+
+    /**
+     * Returns a record to the pool once the handlers are done with it.
+     */
+    void release(Record record)
+    {
+        if (0 == this.depth || record != this.records[this.depth - 1]) {
+            return;
+        }
+
+        record.clear();
+        this.depth--;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import monolog.handler.Handler;
+import monolog.handler.LeveledHandler;
+import monolog.handler.SwitchedHandler;
+import monolog.metrics.DispatchMetrics;
+import monolog.metrics.HandlerMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A logger's chain of handlers, resolved into a table of the handlers that
+ * are enabled for each log level.
+ *
+ * Routings are never changed once built. Loggers are reconfigured by
+ * replacing their routing, so that records already being handled finish with
+ * the handlers they started with. A routing is out of date once the levels
+ * of a switched handler change after it was built.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final class Routing
+{
+    final Handler[] handlers;
+    final DispatchMetrics metrics;
+    final int levelChanges;
+    final Handler[][] routes;
+    final HandlerMetrics[][] meters;
+
+    /**
+     * @param handlers The chain of handlers, in order.
+     * @param metrics Collects the result counts and latency of each handler,
+     *                or null to invoke the handlers without measuring them.
+     * @throws IllegalArgumentException if an empty set of handlers is provided.
+     */
+    Routing(Handler[] handlers, DispatchMetrics metrics)
+    {
+        if (0 == handlers.length) {
+            throw new IllegalArgumentException("You are required to add at least one handler.");
+        }
+
+        this.handlers = handlers.clone();
+        this.metrics = metrics;
+        this.levelChanges = SwitchedHandler.getLevelChanges();
+        this.routes = resolveRoutes(this.handlers);
+        this.meters = null == metrics ? null : resolveMeters(this.routes, metrics);
+    }
+
+    /**
+     * @return Whether the levels of a switched handler have changed since
+     *         this was built.
+     */
+    boolean isStale()
+    {
+        return this.levelChanges != SwitchedHandler.getLevelChanges();
+    }
+
+    /**
+     * Builds a table of the handlers that are enabled for each log level.
+     *
+     * Handlers keep the same relative order as in the full chain.
+     *
+     * @param handlers The handlers to check the levels of.
+     * @return Enabled handlers, indexed by the ordinal of the log level.
+     */
+    private static Handler[][] resolveRoutes(Handler[] handlers)
+    {
+        LogLevel[] levels = LogLevel.values();
+        Handler[][] routes = new Handler[levels.length][];
+
+        for (LogLevel level : levels) {
+            List<Handler> route = new ArrayList<Handler>(handlers.length);
+            for (Handler handler : handlers) {
+                if (false == handler instanceof LeveledHandler || ((LeveledHandler) handler).isEnabled(level)) {
+                    route.add(handler);
+                }
+            }
+            routes[level.ordinal()] = route.toArray(new Handler[route.size()]);
+        }
+
+        return routes;
+    }
+
+    /**
+     * Looks up the metrics for each handler in the table of routes.
+     *
+     * @param routes Enabled handlers, indexed by the ordinal of the log level.
+     * @param metrics Collection to look the handlers up in.
+     * @return Metrics in the same positions as the handlers in the routes.
+     */
+    private static HandlerMetrics[][] resolveMeters(Handler[][] routes, DispatchMetrics metrics)
+    {
+        HandlerMetrics[][] meters = new HandlerMetrics[routes.length][];
+
+        for (int level = 0; level < routes.length; level++) {
+            meters[level] = new HandlerMetrics[routes[level].length];
+            for (int i = 0; i < routes[level].length; i++) {
+                meters[level][i] = metrics.forHandler(routes[level][i]);
+            }
+        }
+
+        return meters;
+    }
+}
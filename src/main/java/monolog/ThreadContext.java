@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+/**
+ * Context fields attached to every record logged on the current thread.
+ *
+ * Changing a field replaces the thread's context with a new one, so records
+ * and handlers that already hold the previous context are not affected.
+ * Setting a field returns the context it replaced, to restore once the work
+ * it describes is done:
+ *
+ *     Context previous = ThreadContext.put("request", requestId);
+ *     try {
+ *         ...
+ *     } finally {
+ *         ThreadContext.set(previous);
+ *     }
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class ThreadContext
+{
+    final private static ThreadLocal<Context> CONTEXT = new ThreadLocal<Context>() {
+        @Override
+        protected Context initialValue()
+        {
+            return Context.EMPTY;
+        }
+    };
+
+    /**
+     * Whether any thread has set a context, so that loggers can skip looking
+     * up the thread's context until then.
+     */
+    private static volatile boolean used = false;
+
+    private ThreadContext()
+    {
+    }
+
+    /**
+     * @return The fields attached to records logged on the current thread.
+     */
+    public static Context get()
+    {
+        return CONTEXT.get();
+    }
+
+    /**
+     * @return The fields of the current thread, without looking them up if
+     *         no thread has set any.
+     */
+    static Context current()
+    {
+        if (false == used) {
+            return Context.EMPTY;
+        }
+
+        return CONTEXT.get();
+    }
+
+    /**
+     * @param context Fields to attach to records logged on the current thread.
+     * @return The context that was replaced.
+     */
+    public static Context set(Context context)
+    {
+        Context previous = CONTEXT.get();
+        used = true;
+        CONTEXT.set(null == context ? Context.EMPTY : context);
+
+        return previous;
+    }
+
+    /**
+     * @param key Name of the field.
+     * @param value Value of the field, or null to remove it.
+     * @return The context that was replaced.
+     */
+    public static Context put(String key, Object value)
+    {
+        Context previous = CONTEXT.get();
+        used = true;
+        CONTEXT.set(previous.with(key, value));
+
+        return previous;
+    }
+
+    /**
+     * @param key Name of the field to remove.
+     * @return The context that was replaced.
+     */
+    public static Context remove(String key)
+    {
+        Context previous = CONTEXT.get();
+        CONTEXT.set(previous.without(key));
+
+        return previous;
+    }
+
+    /**
+     * Removes all of the fields from the current thread.
+     */
+    public static void clear()
+    {
+        CONTEXT.remove();
+    }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Renders exceptions as stack traces, formatting each distinct trace once.
+ *
+ * Exceptions are identified by a fingerprint of the types and top stack
+ * frames of their chain of causes, which stays the same across repeats of
+ * the same failure and across runs of the application. Rendered traces are
+ * kept in a bounded cache by a hash of every frame, and checked against the
+ * exception's frames before they are reused, so an exception that is logged
+ * over and over only has its frames formatted the first time. Messages are
+ * not part of either hash, and are filled in for each exception.
+ *
+ * Traces look like `printStackTrace` output, limited to a number of frames
+ * per exception and of causes per chain. Frames that a cause has in common
+ * with the exception it caused are trimmed, as `printStackTrace` does.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class ThrowableRenderer
+{
+    final private static int DEFAULT_MAX_FRAMES = 32;
+    final private static int DEFAULT_MAX_CAUSES = 8;
+    final private static int DEFAULT_CAPACITY = 64;
+
+    /**
+     * Number of frames from the top of each exception in the fingerprint.
+     */
+    final private static int FINGERPRINT_FRAMES = 8;
+
+    final private static long FNV_OFFSET = 0xcbf29ce484222325L;
+    final private static long FNV_PRIME = 0x100000001b3L;
+
+    final private static ThrowableRenderer SHARED = new ThrowableRenderer(
+        DEFAULT_MAX_FRAMES,
+        DEFAULT_MAX_CAUSES,
+        DEFAULT_CAPACITY
+    );
+
+    final private int maxFrames;
+    final private int maxCauses;
+    final private Map<Long, Trace> traces;
+
+    /**
+     * @param maxFrames Most stack frames to write for each exception.
+     * @param maxCauses Most exceptions to write from a chain of causes.
+     * @param capacity Most rendered traces to keep.
+     */
+    public ThrowableRenderer(int maxFrames, int maxCauses, final int capacity)
+    {
+        if (maxFrames < 1 || maxCauses < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Frames, causes and capacity must be at least one.");
+        }
+
+        this.maxFrames = maxFrames;
+        this.maxCauses = maxCauses;
+        this.traces = new LinkedHashMap<Long, Trace>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Trace> eldest)
+            {
+                return this.size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return A renderer shared by every handler that uses the defaults.
+     */
+    public static ThrowableRenderer getShared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * Get an identifier for the failure an exception describes.
+     *
+     * @param throwable The exception to identify.
+     * @return A hash of the types and top stack frames of the exception and
+     *         its causes, which does not change between runs.
+     */
+    public long fingerprint(Throwable throwable)
+    {
+        Throwable[] chain = this.chain(throwable);
+
+        return hash(chain, stackTraces(chain), FINGERPRINT_FRAMES);
+    }
+
+    /**
+     * @param throwable The exception to render.
+     * @return The exception's stack trace and causes, as text ending in a
+     *         line break.
+     */
+    public String render(Throwable throwable)
+    {
+        Throwable[] chain = this.chain(throwable);
+        StackTraceElement[][] stackTraces = stackTraces(chain);
+        Long key = hash(chain, stackTraces, Integer.MAX_VALUE);
+
+        Trace trace;
+        synchronized (this.traces) {
+            trace = this.traces.get(key);
+        }
+
+        if (null == trace || false == trace.isFor(chain, stackTraces)) {
+            trace = this.format(chain, stackTraces);
+            synchronized (this.traces) {
+                this.traces.put(key, trace);
+            }
+        }
+
+        return trace.render(chain);
+    }
+
+    /**
+     * @return The exception followed by its causes, up to the limit, and
+     *         stopping at any cause that repeats.
+     */
+    private Throwable[] chain(Throwable throwable)
+    {
+        int length = 0;
+        Throwable[] chain = new Throwable[this.maxCauses];
+
+        collect:
+        for (Throwable current = throwable; null != current && length < this.maxCauses; current = current.getCause()) {
+            for (int index = 0; index < length; index++) {
+                if (current == chain[index]) {
+                    break collect;
+                }
+            }
+            chain[length++] = current;
+        }
+
+        if (length == chain.length) {
+            return chain;
+        }
+
+        Throwable[] trimmed = new Throwable[length];
+        System.arraycopy(chain, 0, trimmed, 0, length);
+
+        return trimmed;
+    }
+
+    /**
+     * @return The stack trace of each exception in a chain.
+     */
+    private static StackTraceElement[][] stackTraces(Throwable[] chain)
+    {
+        StackTraceElement[][] stackTraces = new StackTraceElement[chain.length][];
+        for (int index = 0; index < chain.length; index++) {
+            stackTraces[index] = chain[index].getStackTrace();
+        }
+
+        return stackTraces;
+    }
+
+    /**
+     * @param maxFrames Number of frames from the top of each exception to
+     *                  include in the hash.
+     * @return A hash of the types and top stack frames of a chain.
+     */
+    private static long hash(Throwable[] chain, StackTraceElement[][] stackTraces, int maxFrames)
+    {
+        long hash = FNV_OFFSET;
+        for (int position = 0; position < chain.length; position++) {
+            hash = mix(hash, chain[position].getClass().getName().hashCode());
+
+            StackTraceElement[] frames = stackTraces[position];
+            int count = Math.min(frames.length, maxFrames);
+            for (int index = 0; index < count; index++) {
+                StackTraceElement frame = frames[index];
+                hash = mix(hash, frame.getClassName().hashCode());
+                hash = mix(hash, frame.getMethodName().hashCode());
+                hash = mix(hash, frame.getLineNumber());
+            }
+        }
+
+        return hash;
+    }
+
+    private static long mix(long hash, int value)
+    {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash ^= (value >>> shift) & 0xFF;
+            hash *= FNV_PRIME;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Formats the frames of each exception in a chain.
+     */
+    private Trace format(Throwable[] chain, StackTraceElement[][] stackTraces)
+    {
+        String[] types = new String[chain.length];
+        String[] frames = new String[chain.length];
+        StackTraceElement[] enclosing = null;
+
+        for (int index = 0; index < chain.length; index++) {
+            StackTraceElement[] trace = stackTraces[index];
+            types[index] = chain[index].getClass().getName();
+            frames[index] = this.formatFrames(trace, enclosing);
+            enclosing = trace;
+        }
+
+        return new Trace(types, stackTraces, frames);
+    }
+
+    /**
+     * Formats stack frames, leaving out the frames at the bottom that are in
+     * common with the enclosing exception and those beyond the limit.
+     */
+    private String formatFrames(StackTraceElement[] trace, StackTraceElement[] enclosing)
+    {
+        int last = trace.length - 1;
+        if (null != enclosing) {
+            int other = enclosing.length - 1;
+            while (last >= 0 && other >= 0 && trace[last].equals(enclosing[other])) {
+                last--;
+                other--;
+            }
+        }
+
+        int written = Math.min(last + 1, this.maxFrames);
+        StringBuilder builder = new StringBuilder(written * 64);
+        for (int index = 0; index < written; index++) {
+            builder.append("\tat ").append(trace[index]).append('\n');
+        }
+        if (written < trace.length) {
+            builder.append("\t... ").append(trace.length - written).append(" more\n");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * The formatted frames of a chain of exceptions, and the last full trace
+     * rendered from them.
+     */
+    private static class Trace
+    {
+        final private String[] types;
+        final private StackTraceElement[][] stackTraces;
+        final private String[] frames;
+        private volatile Rendered rendered;
+
+        Trace(String[] types, StackTraceElement[][] stackTraces, String[] frames)
+        {
+            this.types = types;
+            this.stackTraces = stackTraces;
+            this.frames = frames;
+        }
+
+        /**
+         * @return Whether the chain has the same types and every frame of the
+         *         formatted one, to rule out hashes that collide.
+         */
+        boolean isFor(Throwable[] chain, StackTraceElement[][] stackTraces)
+        {
+            if (chain.length != this.types.length) {
+                return false;
+            }
+            for (int index = 0; index < chain.length; index++) {
+                if (false == this.types[index].equals(chain[index].getClass().getName())) {
+                    return false;
+                }
+                if (false == Arrays.equals(this.stackTraces[index], stackTraces[index])) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        /**
+         * Fills in the messages of a chain, reusing the last trace if the
+         * messages are the same as last time.
+         */
+        String render(Throwable[] chain)
+        {
+            Rendered rendered = this.rendered;
+            if (null != rendered && rendered.hasMessagesOf(chain)) {
+                return rendered.text;
+            }
+
+            String[] messages = new String[chain.length];
+            StringBuilder builder = new StringBuilder();
+            for (int index = 0; index < chain.length; index++) {
+                messages[index] = chain[index].getLocalizedMessage();
+                if (0 != index) {
+                    builder.append("Caused by: ");
+                }
+                builder.append(this.types[index]);
+                if (null != messages[index]) {
+                    builder.append(": ").append(messages[index]);
+                }
+                builder.append('\n').append(this.frames[index]);
+            }
+
+            rendered = new Rendered(messages, builder.toString());
+            this.rendered = rendered;
+
+            return rendered.text;
+        }
+    }
+
+    /**
+     * A full trace, with the messages it was rendered with.
+     */
+    private static class Rendered
+    {
+        final private String[] messages;
+        final private String text;
+
+        Rendered(String[] messages, String text)
+        {
+            this.messages = messages;
+            this.text = text;
+        }
+
+        boolean hasMessagesOf(Throwable[] chain)
+        {
+            for (int index = 0; index < chain.length; index++) {
+                String message = chain[index].getLocalizedMessage();
+                if (null == message ? null != this.messages[index] : false == message.equals(this.messages[index])) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
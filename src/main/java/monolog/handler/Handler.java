@@ -16,6 +16,9 @@ public interface Handler
     /**
      * Takes a logged record and sends it to a target output.
      *
+     * The record may be reused by the logger once this returns, so handlers
+     * that keep the record for later must keep a `Record.copy()` of it.
+     *
      * @param record The message/cause and other information that was logged.
      * @return Whether or not this logger handled the message or if the chain
      *         of logging should be stopped after invoking this handler.
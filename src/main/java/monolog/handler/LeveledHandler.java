@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler;
+
+import monolog.LogLevel;
+
+/**
+ * A handler that only acts on a known set of log levels.
+ *
+ * Loggers use this to skip building records for levels that none of their
+ * handlers will act on. Handlers that do not implement this interface are
+ * considered to be enabled for every level.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public interface LeveledHandler extends Handler
+{
+    /**
+     * @param level The severity level to check.
+     * @return Whether this handler may act on records logged with the level.
+     */
+    boolean isEnabled(LogLevel level);
+}
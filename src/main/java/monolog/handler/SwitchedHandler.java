@@ -7,8 +7,10 @@ package monolog.handler;
 import monolog.LogLevel;
 import monolog.Record;
 
-import java.util.Arrays;
-import java.util.List;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A log handler that can be enabled/disabled for specified log-levels.
@@ -18,18 +20,76 @@ import java.util.List;
  * When the log level is disabled, this will pass on all requests to handle
  * the log statement, carrying the chain to the next available handler.
  *
+ * The levels can be changed while the application runs. Loggers resolve the
+ * levels of their handlers ahead of time, and resolve them again on their
+ * next log statement once the levels of any switched handler have changed.
+ *
  * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
  */
-abstract public class SwitchedHandler implements Handler
+abstract public class SwitchedHandler implements LeveledHandler
 {
-    final private List<LogLevel> levels;
+    /**
+     * Number of times the levels of any switched handler have been set.
+     */
+    final private static AtomicInteger LEVEL_CHANGES = new AtomicInteger();
+
+    /**
+     * Enabled levels, replaced rather than modified when they change.
+     */
+    private volatile Set<LogLevel> levels;
 
     /**
      * @param levels Log levels that this will be enabled for.
      */
     public SwitchedHandler(LogLevel[] levels)
     {
-        this.levels = Arrays.asList(levels);
+        this.setLevels(levels);
+    }
+
+    /**
+     * Changes the levels that this handler is enabled for.
+     *
+     * Takes effect for every logger and group of handlers that this is part
+     * of, without refreshing them.
+     *
+     * @param levels Log levels that this will be enabled for.
+     */
+    final public void setLevels(LogLevel[] levels)
+    {
+        Set<LogLevel> enabled = EnumSet.noneOf(LogLevel.class);
+        Collections.addAll(enabled, levels);
+
+        this.levels = enabled;
+        LEVEL_CHANGES.incrementAndGet();
+    }
+
+    /**
+     * Get a count of the changes to the levels of every switched handler.
+     *
+     * Tables of handlers resolved by level record the count they were
+     * resolved at, and are resolved again when it no longer matches.
+     *
+     * @return Number of times the levels of any switched handler were set.
+     */
+    public static int getLevelChanges()
+    {
+        return LEVEL_CHANGES.get();
+    }
+
+    /**
+     * @return The levels that this handler is enabled for.
+     */
+    final public LogLevel[] getLevels()
+    {
+        Set<LogLevel> levels = this.levels;
+
+        return levels.toArray(new LogLevel[levels.size()]);
+    }
+
+    @Override
+    final public boolean isEnabled(LogLevel level)
+    {
+        return this.levels.contains(level);
     }
 
     /**
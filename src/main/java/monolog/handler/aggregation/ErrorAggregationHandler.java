@@ -0,0 +1,450 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.aggregation;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.ThrowableRenderer;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import monolog.handler.LeveledHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Groups repeated errors, sending another handler a count of each group
+ * rather than every occurrence.
+ *
+ * Errors are grouped by the fingerprint of their cause, or by their message
+ * if they have no cause. The first error of a group is sent on right away.
+ * Further errors of the group are only counted, and each window the counts
+ * are sent as a summary record, such as "Sync failed (12 occurrences in 60
+ * seconds)", giving the time since the group's last summary. A group that
+ * sees no errors for a whole window is forgotten, so its next error is sent
+ * right away again.
+ *
+ * Fatal records send every waiting count before they are sent on, since the
+ * application is not expected to survive them. Records below the error
+ * level are sent on without being grouped.
+ *
+ * A background thread sends the summaries each window while there are
+ * groups, so counts are sent even once the errors stop; call `shutdown` to
+ * stop it and send the counts still waiting. The number of groups is
+ * bounded; when a new group would exceed it, the group that has gone the
+ * longest without an error sends its count and is forgotten.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class ErrorAggregationHandler implements LeveledHandler
+{
+    final private static long DEFAULT_WINDOW = TimeUnit.MINUTES.toMillis(1);
+    final private static int DEFAULT_MAX_GROUPS = 256;
+
+    final private Handler handler;
+    final private long windowNanos;
+    final private int maxGroups;
+    final private ConcurrentMap<Object, Group> groups = new ConcurrentHashMap<Object, Group>();
+    final private AtomicLong nextSummary;
+    final private Thread summarizer;
+    private volatile boolean running = true;
+    private volatile boolean idle = false;
+
+    /**
+     * @param handler The handler to send first errors and summaries to.
+     */
+    public ErrorAggregationHandler(Handler handler)
+    {
+        this(handler, DEFAULT_WINDOW, DEFAULT_MAX_GROUPS);
+    }
+
+    /**
+     * @param handler The handler to send first errors and summaries to.
+     * @param windowMillis Time between summaries of the counted errors.
+     * @param maxGroups Most distinct errors to count at once.
+     */
+    public ErrorAggregationHandler(Handler handler, long windowMillis, int maxGroups)
+    {
+        if (windowMillis < 1 || maxGroups < 1) {
+            throw new IllegalArgumentException("Window and group limit must be at least one.");
+        }
+
+        this.handler = handler;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.maxGroups = maxGroups;
+        this.nextSummary = new AtomicLong(System.nanoTime() + this.windowNanos);
+
+        this.summarizer = new Thread(new Summarizer(), "monolog-error-aggregation");
+        this.summarizer.setDaemon(true);
+        this.summarizer.start();
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level)
+    {
+        if (this.handler instanceof LeveledHandler) {
+            return ((LeveledHandler) this.handler).isEnabled(level);
+        }
+
+        return true;
+    }
+
+    @Override
+    public HandlerResult handle(Record record)
+    {
+        switch (record.getLevel()) {
+            case ERROR:
+                return this.handleError(record);
+            case FATAL:
+                this.flush();
+                return this.handler.handle(record);
+
+            default:
+                return this.handler.handle(record);
+        }
+    }
+
+    /**
+     * Sends the counts of every group that has seen errors since its last
+     * summary, and forgets groups that have been quiet for a whole window.
+     */
+    public void flush()
+    {
+        long now = System.nanoTime();
+
+        for (Map.Entry<Object, Group> entry : this.groups.entrySet()) {
+            Group group = entry.getValue();
+            if (now - group.lastSeen < this.windowNanos) {
+                this.summarize(group, group.take(), now);
+                continue;
+            }
+
+            int count = group.retire();
+            if (count >= 0) {
+                this.groups.remove(entry.getKey(), group);
+                this.summarize(group, count, now);
+            }
+        }
+    }
+
+    /**
+     * Stops the background thread, then sends the counts of every group.
+     *
+     * @param timeout Maximum time to wait for the background thread.
+     * @param unit Unit of the timeout.
+     * @return Whether the background thread finished within the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        this.running = false;
+        LockSupport.unpark(this.summarizer);
+        this.summarizer.join(Math.max(1, unit.toMillis(timeout)));
+        this.flush();
+
+        return false == this.summarizer.isAlive();
+    }
+
+    private HandlerResult handleError(Record record)
+    {
+        long now = System.nanoTime();
+        Object key = keyOf(record);
+
+        try {
+            while (true) {
+                Group group = this.groups.get(key);
+                if (null == group) {
+                    if (this.groups.size() >= this.maxGroups) {
+                        this.evict();
+                    }
+
+                    Group created = new Group(record.copy(), now);
+                    if (null == this.groups.putIfAbsent(key, created)) {
+                        if (this.idle) {
+                            LockSupport.unpark(this.summarizer);
+                        }
+                        return this.handler.handle(record);
+                    }
+                    continue;
+                }
+
+                if (group.add(now)) {
+                    return HandlerResult.HANDLED;
+                }
+
+                // Retired by a flush while this error was being added.
+                this.groups.remove(key, group);
+            }
+        } finally {
+            this.summarizeIfDue(now);
+        }
+    }
+
+    /**
+     * @return What a record is grouped by: its cause's fingerprint, or else
+     *         its message, along with its logger's name.
+     */
+    private static Object keyOf(Record record)
+    {
+        Throwable cause = record.getCause();
+        Object identity;
+        if (null != cause) {
+            identity = ThrowableRenderer.getShared().fingerprint(cause);
+        } else if (null != record.getTemplate()) {
+            identity = record.getTemplate();
+        } else {
+            identity = record.getMessageString();
+        }
+
+        return new Key(record.getTag(), identity);
+    }
+
+    /**
+     * Forgets the group that has gone the longest without an error, after
+     * sending its count.
+     */
+    private void evict()
+    {
+        Object oldestKey = null;
+        Group oldest = null;
+        for (Map.Entry<Object, Group> entry : this.groups.entrySet()) {
+            if (null == oldest || entry.getValue().lastSeen - oldest.lastSeen < 0) {
+                oldestKey = entry.getKey();
+                oldest = entry.getValue();
+            }
+        }
+
+        if (null == oldest) {
+            return;
+        }
+
+        int count = oldest.retire();
+        if (count >= 0) {
+            this.groups.remove(oldestKey, oldest);
+            this.summarize(oldest, count, System.nanoTime());
+        }
+    }
+
+    /**
+     * Sends the summaries if this thread is the first to see they are due.
+     *
+     * @return Time until the summaries are next due, or -1 if there are no
+     *         groups to summarize.
+     */
+    private long summarizeIfDue(long now)
+    {
+        long next = this.nextSummary.get();
+        if (now - next >= 0 && this.nextSummary.compareAndSet(next, now + this.windowNanos)) {
+            this.flush();
+        }
+
+        if (this.groups.isEmpty()) {
+            return -1;
+        }
+
+        return Math.max(1, this.nextSummary.get() - now);
+    }
+
+    /**
+     * Sends the number of errors counted for a group since its last summary.
+     */
+    private void summarize(Group group, int count, long now)
+    {
+        if (count <= 0) {
+            return;
+        }
+
+        Record first = group.first;
+        this.handler.handle(new Record(
+            first.getTag(),
+            first.getContext(),
+            first.getLevel(),
+            "{} ({} occurrences in {})",
+            3,
+            first.getMessageString(),
+            count,
+            describe(now - group.since.getAndSet(now)),
+            first.getCause()
+        ));
+    }
+
+    /**
+     * @return A duration as a whole number of seconds, or of milliseconds
+     *         if it is shorter than a second.
+     */
+    private static String describe(long nanos)
+    {
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(nanos);
+        if (seconds > 0) {
+            return seconds + " seconds";
+        }
+
+        return TimeUnit.NANOSECONDS.toMillis(nanos) + " milliseconds";
+    }
+
+    /**
+     * Sends the summaries each window while there are groups, until the
+     * handler is shut down.
+     */
+    private class Summarizer implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            while (running) {
+                idle = true;
+                long wait;
+                try {
+                    wait = summarizeIfDue(System.nanoTime());
+                } catch (RuntimeException exception) {
+                    wait = windowNanos;
+                    Thread thread = Thread.currentThread();
+                    Thread.UncaughtExceptionHandler uncaught = thread.getUncaughtExceptionHandler();
+                    if (null != uncaught) {
+                        uncaught.uncaughtException(thread, exception);
+                    }
+                }
+
+                if (false == running) {
+                    return;
+                }
+                if (wait < 0) {
+                    LockSupport.park(this);
+                } else {
+                    idle = false;
+                    LockSupport.parkNanos(this, wait);
+                }
+            }
+        }
+    }
+
+    /**
+     * Identifies a group by the logger it was logged with and its fingerprint
+     * or message.
+     */
+    private static class Key
+    {
+        final private String tag;
+        final private Object identity;
+
+        Key(String tag, Object identity)
+        {
+            this.tag = tag;
+            this.identity = identity;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            Key key = (Key) o;
+
+            if (tag != null ? !tag.equals(key.tag) : key.tag != null) {
+                return false;
+            }
+            if (identity != null ? !identity.equals(key.identity) : key.identity != null) {
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = tag != null ? tag.hashCode() : 0;
+            result = 31 * result + (identity != null ? identity.hashCode() : 0);
+            return result;
+        }
+    }
+
+    /**
+     * Errors counted for one fingerprint or message.
+     *
+     * The count is set to -1 once the group is retired, so that an error
+     * being added at the same time starts a new group rather than being lost.
+     * The counting starts over from the first error and from each summary,
+     * and the summary gives the time since it started.
+     */
+    private static class Group
+    {
+        final private Record first;
+        final private AtomicInteger count = new AtomicInteger();
+        final private AtomicLong since;
+        private volatile long lastSeen;
+
+        Group(Record first, long now)
+        {
+            this.first = first;
+            this.since = new AtomicLong(now);
+            this.lastSeen = now;
+        }
+
+        /**
+         * @return Whether the error was counted, or false if the group has
+         *         been retired.
+         */
+        boolean add(long now)
+        {
+            while (true) {
+                int count = this.count.get();
+                if (count < 0) {
+                    return false;
+                }
+                if (this.count.compareAndSet(count, count + 1)) {
+                    this.lastSeen = now;
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return The errors counted since the last call, resetting the count.
+         */
+        int take()
+        {
+            while (true) {
+                int count = this.count.get();
+                if (count <= 0) {
+                    return 0;
+                }
+                if (this.count.compareAndSet(count, 0)) {
+                    return count;
+                }
+            }
+        }
+
+        /**
+         * Stops the group from counting errors.
+         *
+         * @return The errors counted since the last summary, or -1 if the
+         *         group was already retired.
+         */
+        int retire()
+        {
+            while (true) {
+                int count = this.count.get();
+                if (count < 0) {
+                    return -1;
+                }
+                if (this.count.compareAndSet(count, -1)) {
+                    return count;
+                }
+            }
+        }
+    }
+}
@@ -6,24 +6,139 @@ package monolog.handler.analytics;
 
 import com.google.android.gms.analytics.HitBuilders;
 import com.google.android.gms.analytics.Tracker;
-import monolog.LogName;
+import monolog.LogLevel;
+import monolog.LogNames;
 import monolog.Record;
-import monolog.handler.Handler;
 import monolog.handler.HandlerResult;
+import monolog.handler.LeveledHandler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Sends log statements to Google Analytics.
  *
+ * The tracker's screen name is only updated when it changes, so this should
+ * be the only thing that sets the screen name of its tracker.
+ *
+ * Hits can optionally be sent in batches. In batching mode, hits are held
+ * until enough are waiting or the oldest has waited long enough, then sent
+ * together. A background thread sends a batch once its time is up, even if
+ * nothing more is logged. Identical events logged within a batch are sent as
+ * a single event with their values added together. Fatal errors always send
+ * the batch right away. Call `shutdown` before the application is stopped to
+ * send any waiting hits.
+ *
+ * Context fields of error records can be sent as custom dimensions of their
+ * exception hits, by mapping the names of the fields to dimension indexes.
+ *
  * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
  */
 @SuppressWarnings("unused")
-public class AnalyticsHandler implements Handler
+public class AnalyticsHandler implements LeveledHandler
 {
-    final private Tracker analyticsTracker;
+    final private AnalyticsTracker analyticsTracker;
+    final private int batchSize;
+    final private long flushIntervalNanos;
+    final private String[] dimensionFields;
+    final private int[] dimensionIndexes;
+
+    /**
+     * Hits waiting to be sent, in the order they were logged, as either
+     * built hits or events that may still be merged.
+     */
+    final private List<Object> pending = new ArrayList<Object>();
+    final private Map<PendingEvent, PendingEvent> pendingEvents = new HashMap<PendingEvent, PendingEvent>();
+    private long batchStarted;
+    private boolean screenNameSent;
+    private String screenName;
+
+    /**
+     * Sends batches once their time is up, or null when not batching on a
+     * time limit.
+     */
+    final private Thread flusher;
+    private volatile boolean running = true;
 
     public AnalyticsHandler(Tracker analyticsTracker)
     {
+        this(new GoogleAnalyticsTracker(analyticsTracker));
+    }
+
+    /**
+     * @param analyticsTracker Destination to send each hit to as it is logged.
+     */
+    public AnalyticsHandler(AnalyticsTracker analyticsTracker)
+    {
+        this(analyticsTracker, 1, 0);
+    }
+
+    /**
+     * @param analyticsTracker Destination to send batches of hits to.
+     * @param batchSize Number of hits to wait for before sending them.
+     * @param flushIntervalMillis Longest time to hold a hit before sending it.
+     */
+    public AnalyticsHandler(AnalyticsTracker analyticsTracker, int batchSize, long flushIntervalMillis)
+    {
+        this(analyticsTracker, batchSize, flushIntervalMillis, Collections.<String, Integer>emptyMap());
+    }
+
+    /**
+     * @param analyticsTracker Destination to send batches of hits to.
+     * @param batchSize Number of hits to wait for before sending them.
+     * @param flushIntervalMillis Longest time to hold a hit before sending it.
+     * @param dimensions Indexes of the custom dimensions to send context
+     *                   fields as on exception hits, by the name of the field.
+     */
+    public AnalyticsHandler(
+        AnalyticsTracker analyticsTracker,
+        int batchSize,
+        long flushIntervalMillis,
+        Map<String, Integer> dimensions
+    ) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least one hit.");
+        }
+
         this.analyticsTracker = analyticsTracker;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.dimensionFields = new String[dimensions.size()];
+        this.dimensionIndexes = new int[dimensions.size()];
+
+        int position = 0;
+        for (Map.Entry<String, Integer> dimension : dimensions.entrySet()) {
+            this.dimensionFields[position] = dimension.getKey();
+            this.dimensionIndexes[position] = dimension.getValue();
+            position++;
+        }
+
+        if (this.isBatching() && this.flushIntervalNanos > 0) {
+            this.flusher = new Thread(new Flusher(), "monolog-analytics-flush");
+            this.flusher.setDaemon(true);
+            this.flusher.start();
+        } else {
+            this.flusher = null;
+        }
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level)
+    {
+        switch (level) {
+            case ERROR:
+            case FATAL:
+            case TRACE:
+                return true;
+
+            default:
+                return false;
+        }
     }
 
     @Override
@@ -45,22 +160,73 @@ public class AnalyticsHandler implements Handler
         }
     }
 
+    /**
+     * Sends any hits that are waiting in the current batch.
+     */
+    public void flush()
+    {
+        synchronized (this.pending) {
+            for (Object hit : this.pending) {
+                if (hit instanceof PendingEvent) {
+                    this.analyticsTracker.send(((PendingEvent) hit).build());
+                } else {
+                    @SuppressWarnings("unchecked")
+                    Map<String, String> built = (Map<String, String>) hit;
+                    this.analyticsTracker.send(built);
+                }
+            }
+
+            this.pending.clear();
+            this.pendingEvents.clear();
+        }
+    }
+
+    /**
+     * Stops the background thread, then sends any hits that are waiting.
+     *
+     * @param timeout Maximum time to wait for the background thread.
+     * @param unit Unit of the timeout.
+     * @return Whether the background thread finished within the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        this.running = false;
+        boolean stopped = true;
+        if (null != this.flusher) {
+            LockSupport.unpark(this.flusher);
+            this.flusher.join(Math.max(1, unit.toMillis(timeout)));
+            stopped = false == this.flusher.isAlive();
+        }
+
+        this.flush();
+
+        return stopped;
+    }
+
+    private boolean isBatching()
+    {
+        return this.batchSize > 1;
+    }
+
     private void handleTrace(Record record)
     {
-        if (null == record.getMessage()) {
+        Object message = record.getMessage();
+        if (null == message) {
             return;
         }
 
-        if (record.getMessage().getClass().isAnnotationPresent(LogName.class)) {
-            this.logScreen(record.getMessage());
+        String name = LogNames.getName(message.getClass());
+        if (null != name) {
+            this.logScreen(name);
             return;
         }
-        if (record.getMessage() instanceof TrackedScreen) {
-            this.logScreen((TrackedScreen) record.getMessage());
+        if (message instanceof TrackedScreen) {
+            this.logScreen(((TrackedScreen) message).getName());
             return;
         }
-        if (record.getMessage() instanceof TrackedEvent) {
-            this.logEvent((TrackedEvent) record.getMessage());
+        if (message instanceof TrackedEvent) {
+            this.logEvent((TrackedEvent) message);
             return;
         }
     }
@@ -71,42 +237,51 @@ public class AnalyticsHandler implements Handler
      */
     private void logEvent(TrackedEvent event)
     {
-        HitBuilders.EventBuilder builder = new HitBuilders.EventBuilder();
-        builder.setCategory(event.getCategory());
-        builder.setAction(event.getAction());
-        builder.setLabel(event.getLabel());
-        if (null != event.getValue()) {
-            builder.setValue(event.getValue());
+        if (false == this.isBatching()) {
+            this.analyticsTracker.send(new PendingEvent(event).build());
+            return;
         }
-        this.analyticsTracker.send(builder.build());
-    }
 
-    /**
-     * Adds a screen hit with Google Analytics.
-     */
-    private void logScreen(TrackedScreen screen)
-    {
-        this.analyticsTracker.setScreenName(screen.getName());
-        this.analyticsTracker.send(new HitBuilders.AppViewBuilder().build());
+        synchronized (this.pending) {
+            PendingEvent added = new PendingEvent(event);
+            PendingEvent existing = this.pendingEvents.get(added);
+
+            if (null == existing) {
+                this.pendingEvents.put(added, added);
+                this.addPending(added);
+            } else {
+                existing.add(event.getValue());
+                this.flushIfDue();
+            }
+        }
     }
 
     /**
-     * Adds a screen hit with Google Analyics based off of an object's
-     * ScreenName annotation.
+     * Adds a screen hit with Google Analyics.
      *
-     * @param o The object containing a DisplayName annotation to be logged.
+     * @param name The readable name of the screen, from either a tracked
+     *             screen or an object's LogName annotation.
      * @see monolog.LogName
      */
-    private void logScreen(Object o)
+    private void logScreen(String name)
     {
-        LogName annotation = o.getClass().getAnnotation(LogName.class);
-        if (null == annotation) {
-            return;
-        }
+        synchronized (this.pending) {
+            boolean changed = null == name ? null != this.screenName : false == name.equals(this.screenName);
+            if (changed || false == this.screenNameSent) {
+                // Waiting hits belong to the previous screen.
+                this.flush();
+                this.analyticsTracker.setScreenName(name);
+                this.screenName = name;
+                this.screenNameSent = true;
+            }
+
+            if (false == this.isBatching()) {
+                this.analyticsTracker.send(new HitBuilders.AppViewBuilder().build());
+                return;
+            }
 
-        String name = annotation.value();
-        this.analyticsTracker.setScreenName(name);
-        this.analyticsTracker.send(new HitBuilders.AppViewBuilder().build());
+            this.addPending(new HitBuilders.AppViewBuilder().build());
+        }
     }
 
     private void handleFatal(Record record)
@@ -114,8 +289,17 @@ public class AnalyticsHandler implements Handler
         HitBuilders.ExceptionBuilder builder = new HitBuilders.ExceptionBuilder();
         builder.setDescription(this.getDescription(record));
         builder.setFatal(true);
+        this.addDimensions(builder, record);
+
+        if (false == this.isBatching()) {
+            this.analyticsTracker.send(builder.build());
+            return;
+        }
 
-        this.analyticsTracker.send(builder.build());
+        synchronized (this.pending) {
+            this.pending.add(builder.build());
+            this.flush();
+        }
     }
 
     private void handleError(Record record)
@@ -123,25 +307,202 @@ public class AnalyticsHandler implements Handler
         HitBuilders.ExceptionBuilder builder = new HitBuilders.ExceptionBuilder();
         builder.setDescription(this.getDescription(record));
         builder.setFatal(false);
+        this.addDimensions(builder, record);
+
+        if (false == this.isBatching()) {
+            this.analyticsTracker.send(builder.build());
+            return;
+        }
 
-        this.analyticsTracker.send(builder.build());
+        synchronized (this.pending) {
+            this.addPending(builder.build());
+        }
+    }
+
+    /**
+     * Sets the mapped context fields of a record as custom dimensions.
+     */
+    private void addDimensions(HitBuilders.ExceptionBuilder builder, Record record)
+    {
+        for (int index = 0; index < this.dimensionFields.length; index++) {
+            Object value = record.getField(this.dimensionFields[index]);
+            if (null != value) {
+                builder.setCustomDimension(this.dimensionIndexes[index], value.toString());
+            }
+        }
+    }
+
+    /**
+     * Adds a hit to the batch, sending the batch if it is full or too old.
+     *
+     * Must be invoked while holding the lock on the pending hits.
+     */
+    private void addPending(Object hit)
+    {
+        if (this.pending.isEmpty()) {
+            this.batchStarted = System.nanoTime();
+            if (null != this.flusher) {
+                LockSupport.unpark(this.flusher);
+            }
+        }
+        this.pending.add(hit);
+
+        if (this.pending.size() >= this.batchSize) {
+            this.flush();
+        } else {
+            this.flushIfDue();
+        }
+    }
+
+    /**
+     * Sends the batch if the oldest hit has waited past the flush interval.
+     *
+     * Must be invoked while holding the lock on the pending hits.
+     */
+    private void flushIfDue()
+    {
+        if (false == this.pending.isEmpty() && System.nanoTime() - this.batchStarted >= this.flushIntervalNanos) {
+            this.flush();
+        }
+    }
+
+    /**
+     * Sends each batch once its oldest hit has waited for the flush interval,
+     * until the handler is shut down.
+     */
+    private class Flusher implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            while (running) {
+                long wait = 0;
+                try {
+                    synchronized (pending) {
+                        if (false == pending.isEmpty()) {
+                            wait = batchStarted + flushIntervalNanos - System.nanoTime();
+                            if (wait <= 0) {
+                                flush();
+                                wait = 0;
+                            }
+                        }
+                    }
+                } catch (RuntimeException exception) {
+                    Thread thread = Thread.currentThread();
+                    Thread.UncaughtExceptionHandler uncaught = thread.getUncaughtExceptionHandler();
+                    if (null != uncaught) {
+                        uncaught.uncaughtException(thread, exception);
+                    }
+                }
+
+                if (false == running) {
+                    return;
+                }
+                if (0 == wait) {
+                    LockSupport.park(this);
+                } else {
+                    LockSupport.parkNanos(this, wait);
+                }
+            }
+        }
     }
 
     private String getDescription(Record record)
     {
         if (null == record.getCause()) {
-            return this.getMessageString(record.getMessage());
+            return this.getMessageString(record);
         } else {
-            return this.getMessageString(record.getMessage()) + ":" + record.getCause().getMessage();
+            return this.getMessageString(record) + ":" + record.getCause().getMessage();
         }
     }
 
-    private String getMessageString(Object message)
+    private String getMessageString(Record record)
     {
+        String message = record.getMessageString();
         if (null == message) {
             return "NULL";
         }
 
-        return message.toString();
+        return message;
+    }
+
+    /**
+     * An event waiting to be sent, that identical events can be merged into.
+     *
+     * Events are identical if their category, action and label are equal.
+     */
+    private static class PendingEvent
+    {
+        final private String category;
+        final private String action;
+        final private String label;
+        private Long value;
+
+        PendingEvent(TrackedEvent event)
+        {
+            this.category = event.getCategory();
+            this.action = event.getAction();
+            this.label = event.getLabel();
+            this.value = event.getValue();
+        }
+
+        /**
+         * Adds the value of an identical event into this one.
+         */
+        void add(Long value)
+        {
+            if (null == value) {
+                return;
+            }
+
+            this.value = null == this.value ? value : this.value + value;
+        }
+
+        Map<String, String> build()
+        {
+            HitBuilders.EventBuilder builder = new HitBuilders.EventBuilder();
+            builder.setCategory(this.category);
+            builder.setAction(this.action);
+            builder.setLabel(this.label);
+            if (null != this.value) {
+                builder.setValue(this.value);
+            }
+
+            return builder.build();
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            PendingEvent event = (PendingEvent) o;
+
+            if (category != null ? !category.equals(event.category) : event.category != null) {
+                return false;
+            }
+            if (action != null ? !action.equals(event.action) : event.action != null) {
+                return false;
+            }
+            if (label != null ? !label.equals(event.label) : event.label != null) {
+                return false;
+            }
+
+            return true;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            int result = category != null ? category.hashCode() : 0;
+            result = 31 * result + (action != null ? action.hashCode() : 0);
+            result = 31 * result + (label != null ? label.hashCode() : 0);
+            return result;
+        }
     }
 }
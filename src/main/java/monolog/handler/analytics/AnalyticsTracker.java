@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.analytics;
+
+import java.util.Map;
+
+/**
+ * Destination for the hits built by the analytics handler.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public interface AnalyticsTracker
+{
+    /**
+     * @param name Screen name to attach to the hits sent after this.
+     */
+    void setScreenName(String name);
+
+    /**
+     * @param hit The parameters of the hit to be sent.
+     */
+    void send(Map<String, String> hit);
+}
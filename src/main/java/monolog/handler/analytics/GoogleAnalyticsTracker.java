@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.analytics;
+
+import com.google.android.gms.analytics.Tracker;
+
+import java.util.Map;
+
+/**
+ * Sends analytics hits with a Google Analytics tracker.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class GoogleAnalyticsTracker implements AnalyticsTracker
+{
+    final private Tracker tracker;
+
+    /**
+     * @param tracker The Google Analytics tracker to send hits with.
+     */
+    public GoogleAnalyticsTracker(Tracker tracker)
+    {
+        this.tracker = tracker;
+    }
+
+    @Override
+    public void setScreenName(String name)
+    {
+        this.tracker.setScreenName(name);
+    }
+
+    @Override
+    public void send(Map<String, String> hit)
+    {
+        this.tracker.send(hit);
+    }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.analytics;
+
+import monolog.handler.file.ByteSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of hits on disk, read back from the last hit acknowledged.
+ *
+ * Hits are appended to memory-mapped segment files, so a hit is kept as soon
+ * as it is copied in, even if the process dies right after. Syncing the files
+ * to the storage device, which also keeps them across the device losing
+ * power, is left to `force`, so that it can be done in batches.
+ *
+ * Each entry is its length, a CRC-32 of its contents and then the contents.
+ * The length is written last, so an entry is not seen until it is complete.
+ * When the log is opened, reading stops at the first entry that is cut off
+ * or fails its checksum, and new hits are written over it.
+ *
+ * The position of the last hit acknowledged is kept in a separate file, in
+ * two alternating checksummed slots so that a torn write only loses the
+ * latest acknowledgement. Segments are deleted once every hit in them is
+ * acknowledged.
+ *
+ * Appending may be done from any thread; reading, acknowledging and syncing
+ * from one thread at a time.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final class HitLog
+{
+    final private static String EXTENSION = ".hits";
+    final private static String ACKNOWLEDGED_NAME = "acknowledged";
+    final private static int ENTRY_HEADER = 8;
+    final private static int ACKNOWLEDGED_SLOT = 24;
+    final private static Charset UTF_8 = Charset.forName("UTF-8");
+
+    final private File directory;
+    final private int segmentSize;
+    final private int maxSegments;
+    final private MappedByteBuffer acknowledged;
+    private long acknowledgements;
+    private volatile long acknowledgedSegment;
+    private long forced = -1;
+    private boolean acknowledgedSinceForce;
+
+    final private ByteSink sink = new ByteSink(256);
+    final private CRC32 writeChecksum = new CRC32();
+    private long writeSegment;
+    private MappedByteBuffer writeBuffer;
+    private MappedByteBuffer rolledBuffer;
+
+    /**
+     * End of the hits written so far, as the segment number in the high 32
+     * bits and the offset in the segment in the low 32 bits.
+     */
+    private volatile long written;
+
+    final private CRC32 readChecksum = new CRC32();
+    private byte[] readBytes = new byte[256];
+    private long readSegment;
+    private ByteBuffer readBuffer;
+    private int readOffset;
+
+    /**
+     * Opens the log, finding the end of the hits written before.
+     *
+     * @param directory Directory to keep the segment files in.
+     * @param segmentSize Number of bytes in each segment file.
+     * @param maxSegments Most segment files to keep before dropping new hits.
+     * @throws IOException if the files cannot be created or mapped.
+     */
+    HitLog(File directory, int segmentSize, int maxSegments) throws IOException
+    {
+        if (false == directory.isDirectory() && false == directory.mkdirs()) {
+            throw new IOException("Unable to create hit directory " + directory);
+        }
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.acknowledged = map(new File(directory, ACKNOWLEDGED_NAME), 2 * ACKNOWLEDGED_SLOT);
+
+        this.readAcknowledged();
+        this.deleteSegmentsBefore(this.readSegment);
+
+        long last = this.readSegment;
+        while (this.segmentFile(last + 1).exists()) {
+            last++;
+        }
+
+        this.writeSegment = last;
+        this.writeBuffer = map(this.segmentFile(last), segmentSize);
+        int end = last == this.readSegment ? this.readOffset : 0;
+        for (int length = this.validate(this.writeBuffer, end); length > 0; length = this.validate(this.writeBuffer, end)) {
+            end += ENTRY_HEADER + length;
+        }
+        erase(this.writeBuffer, end);
+
+        this.written = position(last, end);
+        this.readBuffer = this.readSegment == last ? this.writeBuffer.duplicate() : map(this.segmentFile(this.readSegment), segmentSize);
+    }
+
+    /**
+     * Copies a hit into the log.
+     *
+     * @param screenName Screen the hit was sent from, or null.
+     * @param hit The parameters of the hit.
+     * @return Whether the hit was added, or false if it is larger than a
+     *         segment or the log is full.
+     * @throws IOException if a new segment file cannot be created.
+     */
+    synchronized boolean append(String screenName, Map<String, String> hit) throws IOException
+    {
+        this.sink.clear();
+        writeString(screenName, this.sink);
+        this.sink.writeVarLong(hit.size());
+        for (Map.Entry<String, String> parameter : hit.entrySet()) {
+            writeString(parameter.getKey(), this.sink);
+            writeString(parameter.getValue(), this.sink);
+        }
+
+        int length = this.sink.size();
+        if (ENTRY_HEADER + length > this.segmentSize) {
+            return false;
+        }
+
+        int offset = (int) this.written;
+        if (offset + ENTRY_HEADER + length > this.segmentSize) {
+            if (this.writeSegment + 1 - this.acknowledgedSegment >= this.maxSegments) {
+                return false;
+            }
+
+            MappedByteBuffer next = map(this.segmentFile(this.writeSegment + 1), this.segmentSize);
+            this.rolledBuffer = this.writeBuffer;
+            this.writeBuffer = next;
+            this.writeSegment++;
+            offset = 0;
+        }
+
+        this.writeChecksum.reset();
+        this.sink.updateChecksum(this.writeChecksum);
+
+        this.writeBuffer.position(offset + ENTRY_HEADER);
+        this.sink.copyTo(this.writeBuffer);
+        this.writeBuffer.putInt(offset + 4, (int) this.writeChecksum.getValue());
+        this.writeBuffer.putInt(offset, length);
+
+        this.written = position(this.writeSegment, offset + ENTRY_HEADER + length);
+
+        return true;
+    }
+
+    /**
+     * Reads the next hit after the last one read.
+     *
+     * @return The next hit, or null if every hit written has been read.
+     * @throws IOException if the next segment file cannot be mapped.
+     */
+    Hit read() throws IOException
+    {
+        while (true) {
+            long end = this.written;
+            long endSegment = end >>> 32;
+            if (this.readSegment == endSegment && this.readOffset >= (int) end) {
+                return null;
+            }
+
+            int length = this.validate(this.readBuffer, this.readOffset);
+            if (length <= 0) {
+                if (this.readSegment == endSegment) {
+                    return null;
+                }
+
+                // End of a full segment, or a damaged entry at its end.
+                this.readSegment++;
+                this.readOffset = 0;
+                this.readBuffer = map(this.segmentFile(this.readSegment), this.segmentSize);
+                continue;
+            }
+
+            this.readOffset += ENTRY_HEADER + length;
+
+            return this.decode(length);
+        }
+    }
+
+    /**
+     * Goes back to reading from the last hit acknowledged, so that hits that
+     * could not be delivered are read again.
+     *
+     * @throws IOException if the segment file cannot be mapped.
+     */
+    void rewind() throws IOException
+    {
+        this.readAcknowledged();
+        this.readBuffer = map(this.segmentFile(this.readSegment), this.segmentSize);
+    }
+
+    /**
+     * Records that every hit read so far has been delivered, deleting the
+     * segments that are no longer needed.
+     */
+    void acknowledge()
+    {
+        int slot = (int) (++this.acknowledgements % 2) * ACKNOWLEDGED_SLOT;
+        ByteBuffer buffer = this.acknowledged;
+
+        buffer.putLong(slot, this.acknowledgements);
+        buffer.putLong(slot + 8, this.readSegment);
+        buffer.putInt(slot + 16, this.readOffset);
+        buffer.putInt(slot + 20, slotChecksum(buffer, slot));
+
+        this.acknowledgedSinceForce = true;
+
+        long previous = this.acknowledgedSegment;
+        this.acknowledgedSegment = this.readSegment;
+        for (long segment = previous; segment < this.readSegment; segment++) {
+            this.segmentFile(segment).delete();
+        }
+    }
+
+    /**
+     * Syncs the hits written and the last acknowledgement to the storage
+     * device.
+     */
+    void force()
+    {
+        long end = this.written;
+        if (end == this.forced && false == this.acknowledgedSinceForce) {
+            return;
+        }
+
+        MappedByteBuffer rolled;
+        MappedByteBuffer current;
+        synchronized (this) {
+            rolled = this.rolledBuffer;
+            current = this.writeBuffer;
+            this.rolledBuffer = null;
+        }
+
+        if (null != rolled) {
+            rolled.force();
+        }
+        current.force();
+        this.acknowledged.force();
+
+        this.forced = end;
+        this.acknowledgedSinceForce = false;
+    }
+
+    /**
+     * @return Whether every hit written has been read.
+     */
+    boolean isRead()
+    {
+        long end = this.written;
+
+        return this.readSegment == end >>> 32 && this.readOffset >= (int) end;
+    }
+
+    private File segmentFile(long segment)
+    {
+        return new File(this.directory, String.format("%016d%s", segment, EXTENSION));
+    }
+
+    /**
+     * Sets the read position from the newest intact acknowledgement.
+     */
+    private void readAcknowledged()
+    {
+        this.acknowledgements = 0;
+        this.readSegment = 0;
+        this.readOffset = 0;
+
+        for (int slot = 0; slot < 2 * ACKNOWLEDGED_SLOT; slot += ACKNOWLEDGED_SLOT) {
+            long count = this.acknowledged.getLong(slot);
+            if (count <= this.acknowledgements || this.acknowledged.getInt(slot + 20) != slotChecksum(this.acknowledged, slot)) {
+                continue;
+            }
+
+            this.acknowledgements = count;
+            this.readSegment = this.acknowledged.getLong(slot + 8);
+            this.readOffset = this.acknowledged.getInt(slot + 16);
+        }
+
+        this.acknowledgedSegment = this.readSegment;
+    }
+
+    private static int slotChecksum(ByteBuffer buffer, int slot)
+    {
+        CRC32 checksum = new CRC32();
+        for (int index = slot; index < slot + 20; index++) {
+            checksum.update(buffer.get(index));
+        }
+
+        return (int) checksum.getValue();
+    }
+
+    /**
+     * Deletes segments left behind by a run that stopped between writing an
+     * acknowledgement and deleting them.
+     */
+    private void deleteSegmentsBefore(long segment)
+    {
+        for (long previous = segment - 1; previous >= 0 && this.segmentFile(previous).delete(); previous--) {
+            // Deleted back to the first one that is already gone.
+        }
+    }
+
+    /**
+     * Checks the entry at an offset, copying its contents into the read
+     * bytes.
+     *
+     * @return Length of the entry's contents, or 0 if there is no complete
+     *         entry at the offset.
+     */
+    private int validate(ByteBuffer buffer, int offset)
+    {
+        if (offset + ENTRY_HEADER > this.segmentSize) {
+            return 0;
+        }
+
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > this.segmentSize - offset - ENTRY_HEADER) {
+            return 0;
+        }
+
+        if (this.readBytes.length < length) {
+            this.readBytes = new byte[Math.max(length, this.readBytes.length * 2)];
+        }
+        ByteBuffer contents = buffer.duplicate();
+        contents.position(offset + ENTRY_HEADER);
+        contents.get(this.readBytes, 0, length);
+
+        this.readChecksum.reset();
+        this.readChecksum.update(this.readBytes, 0, length);
+        if ((int) this.readChecksum.getValue() != buffer.getInt(offset + 4)) {
+            return 0;
+        }
+
+        return length;
+    }
+
+    /**
+     * Reads the hit from the contents copied by `validate`.
+     */
+    private Hit decode(int length)
+    {
+        ByteBuffer input = ByteBuffer.wrap(this.readBytes, 0, length);
+        String screenName = readString(input);
+        int count = (int) readVarLong(input);
+
+        Map<String, String> fields = new HashMap<String, String>(count * 2);
+        for (int index = 0; index < count; index++) {
+            String key = readString(input);
+            fields.put(key, readString(input));
+        }
+
+        return new Hit(screenName, fields);
+    }
+
+    /**
+     * Writes a string as its length in UTF-8 plus one, or zero for null,
+     * followed by its UTF-8 bytes.
+     */
+    private static void writeString(String value, ByteSink sink)
+    {
+        if (null == value) {
+            sink.writeVarLong(0);
+            return;
+        }
+
+        sink.writeVarLong(utf8Length(value) + 1);
+        sink.writeUtf8(value);
+    }
+
+    private static String readString(ByteBuffer input)
+    {
+        int length = (int) readVarLong(input) - 1;
+        if (length < 0) {
+            return null;
+        }
+
+        String value = new String(input.array(), input.position(), length, UTF_8);
+        input.position(input.position() + length);
+
+        return value;
+    }
+
+    private static long readVarLong(ByteBuffer input)
+    {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = input.get();
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * @return Number of bytes the string takes as UTF-8, as written by the
+     *         byte sink.
+     */
+    private static int utf8Length(String value)
+    {
+        int length = 0;
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (character < 0x80) {
+                length += 1;
+            } else if (character < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(character)
+                && index + 1 < value.length()
+                && Character.isLowSurrogate(value.charAt(index + 1))
+            ) {
+                length += 4;
+                index++;
+            } else {
+                length += 3;
+            }
+        }
+
+        return length;
+    }
+
+    private static long position(long segment, int offset)
+    {
+        return segment << 32 | offset;
+    }
+
+    /**
+     * Zeroes a segment from an offset to its end, unless it is already zero,
+     * to clear out an entry that was cut off.
+     */
+    private static void erase(MappedByteBuffer buffer, int offset)
+    {
+        for (int index = offset; index < buffer.capacity(); index++) {
+            if (0 != buffer.get(index)) {
+                for (int cleared = index; cleared < buffer.capacity(); cleared++) {
+                    buffer.put(cleared, (byte) 0);
+                }
+                return;
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(File file, int size) throws IOException
+    {
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        try {
+            return access.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } finally {
+            // The mapping stays valid after the file is closed.
+            access.close();
+        }
+    }
+
+    /**
+     * A hit read back from the log.
+     */
+    static class Hit
+    {
+        final private String screenName;
+        final private Map<String, String> fields;
+
+        Hit(String screenName, Map<String, String> fields)
+        {
+            this.screenName = screenName;
+            this.fields = fields;
+        }
+
+        String getScreenName()
+        {
+            return this.screenName;
+        }
+
+        Map<String, String> getFields()
+        {
+            return this.fields;
+        }
+    }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.analytics;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Keeps hits on disk until they are handed to another tracker, so that hits
+ * sent just before the process dies are sent on the next run instead of
+ * being lost.
+ *
+ * Sending a hit only copies it into a memory-mapped log, which keeps it even
+ * if the process dies right after. A background thread reads the hits back
+ * from the log and sends them to the wrapped tracker, along with the screen
+ * name they were sent with, then records how far it got. Syncing the log to
+ * the storage device is done by that thread too, once for each batch of hits.
+ * On the next run, hits are sent again from the last position recorded, so a
+ * hit may be sent twice if the process dies while its batch is being sent.
+ *
+ * If the log cannot be opened, hits are sent straight to the wrapped tracker.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class PersistentTracker implements AnalyticsTracker
+{
+    final private static int DEFAULT_SEGMENT_SIZE = 256 * 1024;
+    final private static int DEFAULT_MAX_SEGMENTS = 16;
+    final private static long DEFAULT_DELIVERY_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    final private static long MAX_RETRY_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    final private AnalyticsTracker tracker;
+    final private File directory;
+    final private int segmentSize;
+    final private int maxSegments;
+    final private long deliveryIntervalNanos;
+    final private AtomicLong dropped = new AtomicLong();
+    final private Thread deliverer;
+
+    final private Object lock = new Object();
+    private HitLog log;
+    private boolean unavailable;
+    private String screenName;
+
+    /**
+     * Held while sending to the wrapped tracker, along with the screen name
+     * last set on it.
+     */
+    final private Object trackerLock = new Object();
+    private boolean screenNameSent;
+    private String sentScreenName;
+
+    private volatile boolean running = true;
+    private volatile boolean flushing = false;
+
+    /**
+     * Keeps up to 4MB of hits, sending them about once a second.
+     *
+     * @param tracker Destination to send the hits to once they are kept.
+     * @param directory Directory to keep the hits in, used only by this.
+     */
+    public PersistentTracker(AnalyticsTracker tracker, File directory)
+    {
+        this(tracker, directory, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SEGMENTS, DEFAULT_DELIVERY_INTERVAL);
+    }
+
+    /**
+     * @param tracker Destination to send the hits to once they are kept.
+     * @param directory Directory to keep the hits in, used only by this.
+     * @param segmentSize Number of bytes in each file of the log.
+     * @param maxSegments Most files to keep before new hits are dropped.
+     * @param deliveryIntervalMillis Time between sending batches of hits.
+     */
+    public PersistentTracker(
+        AnalyticsTracker tracker,
+        File directory,
+        int segmentSize,
+        int maxSegments,
+        long deliveryIntervalMillis
+    ) {
+        if (segmentSize < 64 || maxSegments < 2) {
+            throw new IllegalArgumentException("Segments must hold at least 64 bytes, and at least two be kept.");
+        }
+
+        this.tracker = tracker;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.deliveryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(deliveryIntervalMillis);
+        this.deliverer = new Thread(new Deliverer(), "monolog-analytics");
+        this.deliverer.setDaemon(true);
+        this.deliverer.start();
+    }
+
+    @Override
+    public void setScreenName(String name)
+    {
+        synchronized (this.lock) {
+            this.screenName = name;
+        }
+    }
+
+    @Override
+    public void send(Map<String, String> hit)
+    {
+        String screenName;
+        synchronized (this.lock) {
+            HitLog log = this.open();
+            screenName = this.screenName;
+
+            if (null != log) {
+                try {
+                    if (false == log.append(screenName, hit)) {
+                        this.dropped.incrementAndGet();
+                    }
+                    return;
+                } catch (IOException exception) {
+                    // Send this one straight away.
+                }
+            }
+        }
+
+        synchronized (this.trackerLock) {
+            this.sendToTracker(screenName, hit);
+        }
+    }
+
+    /**
+     * @return The number of hits discarded because the log was full.
+     */
+    final public long getDroppedCount()
+    {
+        return this.dropped.get();
+    }
+
+    /**
+     * Sends the hits in the log to the wrapped tracker now, rather than at
+     * the next interval.
+     */
+    public void flush()
+    {
+        this.flushing = true;
+        LockSupport.unpark(this.deliverer);
+    }
+
+    /**
+     * Stops the background thread once the hits in the log are sent.
+     *
+     * Hits sent after this is invoked are kept in the log for the next run.
+     *
+     * @param timeout Maximum time to wait for the hits to be sent.
+     * @param unit Unit of the timeout.
+     * @return Whether the background thread finished within the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        this.running = false;
+        LockSupport.unpark(this.deliverer);
+        this.deliverer.join(Math.max(1, unit.toMillis(timeout)));
+
+        return false == this.deliverer.isAlive();
+    }
+
+    /**
+     * Sends a hit to the wrapped tracker, setting its screen name first if
+     * it has changed.
+     *
+     * Must be invoked while holding the tracker lock.
+     */
+    private void sendToTracker(String screenName, Map<String, String> hit)
+    {
+        boolean changed = null == screenName ? null != this.sentScreenName : false == screenName.equals(this.sentScreenName);
+        if (changed || false == this.screenNameSent) {
+            this.tracker.setScreenName(screenName);
+            this.sentScreenName = screenName;
+            this.screenNameSent = true;
+        }
+
+        this.tracker.send(hit);
+    }
+
+    /**
+     * Opens the log the first time it is needed, reading back the position
+     * recorded by the last run.
+     *
+     * Must be invoked while holding the lock.
+     *
+     * @return The log, or null if it cannot be opened.
+     */
+    private HitLog open()
+    {
+        if (null == this.log && false == this.unavailable) {
+            try {
+                this.log = new HitLog(this.directory, this.segmentSize, this.maxSegments);
+            } catch (IOException exception) {
+                this.unavailable = true;
+            }
+        }
+
+        return this.log;
+    }
+
+    /**
+     * Sends the hits in the log in batches until the tracker is shut down.
+     */
+    private class Deliverer implements Runnable
+    {
+        private long retryNanos;
+
+        @Override
+        public void run()
+        {
+            HitLog log;
+            synchronized (lock) {
+                log = open();
+            }
+            if (null == log) {
+                return;
+            }
+
+            while (true) {
+                boolean stopping = false == running;
+                if (this.deliver(log)) {
+                    this.retryNanos = 0;
+                } else {
+                    this.retryNanos = Math.min(MAX_RETRY_NANOS, Math.max(deliveryIntervalNanos, this.retryNanos * 2));
+                }
+
+                if (stopping) {
+                    return;
+                }
+
+                long wait = 0 == this.retryNanos ? deliveryIntervalNanos : this.retryNanos;
+                if (false == flushing && running) {
+                    LockSupport.parkNanos(this, wait);
+                }
+                flushing = false;
+            }
+        }
+
+        /**
+         * Sends every hit in the log, then records that they were sent.
+         *
+         * @return Whether the hits were sent, or false if the tracker failed
+         *         and they will be tried again.
+         */
+        private boolean deliver(HitLog log)
+        {
+            try {
+                if (false == log.isRead()) {
+                    synchronized (trackerLock) {
+                        for (HitLog.Hit hit = log.read(); null != hit; hit = log.read()) {
+                            sendToTracker(hit.getScreenName(), hit.getFields());
+                        }
+                    }
+                    log.acknowledge();
+                }
+                log.force();
+
+                return true;
+            } catch (IOException exception) {
+                this.rewind(log);
+            } catch (RuntimeException exception) {
+                this.rewind(log);
+                Thread thread = Thread.currentThread();
+                Thread.UncaughtExceptionHandler uncaught = thread.getUncaughtExceptionHandler();
+                if (null != uncaught) {
+                    uncaught.uncaughtException(thread, exception);
+                }
+            }
+
+            return false;
+        }
+
+        private void rewind(HitLog log)
+        {
+            try {
+                log.rewind();
+            } catch (IOException exception) {
+                // Tried again from the same position on the next attempt.
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.async;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import monolog.handler.LeveledHandler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hands records off to another handler on a background thread.
+ *
+ * Records are added to a bounded queue and the logging thread returns right
+ * away, while a single dispatcher thread drains the queue in batches and
+ * sends each record to the wrapped handler. When the queue is full, the
+ * overflow policy decides whether the logging thread waits, or which record
+ * is discarded.
+ *
+ * Since the wrapped handler is invoked later, queued records are reported as
+ * `HANDLED` and the wrapped handler cannot finish the logger's chain.
+ * Discarded records are reported as `PASSED`.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class AsyncHandler implements LeveledHandler
+{
+    final private static int DEFAULT_CAPACITY = 1024;
+    final private static int BATCH_SIZE = 64;
+    final private static long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    final private static long BLOCKED_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    final private Handler handler;
+    final private OverflowPolicy policy;
+    final private RecordQueue queue;
+    final private AtomicLong dropped = new AtomicLong();
+    final private Thread dispatcher;
+    private volatile boolean running = true;
+    private volatile boolean idle = false;
+
+    /**
+     * @param handler The handler to send records to in the background.
+     */
+    public AsyncHandler(Handler handler)
+    {
+        this(handler, DEFAULT_CAPACITY, OverflowPolicy.SYNCHRONOUS_ERRORS);
+    }
+
+    /**
+     * @param handler The handler to send records to in the background.
+     * @param capacity Number of records that can wait to be handled, rounded
+     *                 up to the next power of two.
+     * @param policy What to do with records logged while the queue is full.
+     */
+    public AsyncHandler(Handler handler, int capacity, OverflowPolicy policy)
+    {
+        this.handler = handler;
+        this.policy = policy;
+        this.queue = new RecordQueue(capacity);
+        this.dispatcher = new Thread(new Dispatcher(), "monolog-async");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level)
+    {
+        if (this.handler instanceof LeveledHandler) {
+            return ((LeveledHandler) this.handler).isEnabled(level);
+        }
+
+        return true;
+    }
+
+    @Override
+    public HandlerResult handle(Record record)
+    {
+        if (false == this.running) {
+            return this.handler.handle(record);
+        }
+
+        Record queued = record.copy();
+        while (false == this.queue.offer(queued)) {
+            switch (this.policy) {
+                case BLOCK:
+                    LockSupport.parkNanos(this, BLOCKED_NANOS);
+                    if (false == this.running) {
+                        return this.handler.handle(record);
+                    }
+                    break;
+                case DROP_OLDEST:
+                    if (null != this.queue.poll()) {
+                        this.dropped.incrementAndGet();
+                    }
+                    break;
+                case SYNCHRONOUS_ERRORS:
+                    if (record.getLevel().compareTo(LogLevel.ERROR) >= 0) {
+                        return this.handler.handle(record);
+                    }
+                    this.dropped.incrementAndGet();
+                    return HandlerResult.PASSED;
+
+                default:
+                    this.dropped.incrementAndGet();
+                    return HandlerResult.PASSED;
+            }
+        }
+
+        if (this.idle) {
+            LockSupport.unpark(this.dispatcher);
+        }
+        if (false == this.running) {
+            // Shut down while this record was being queued; the dispatcher
+            // may have already drained for the last time.
+            for (Record remaining = this.queue.poll(); null != remaining; remaining = this.queue.poll()) {
+                this.dispatch(remaining);
+            }
+        }
+
+        return HandlerResult.HANDLED;
+    }
+
+    /**
+     * @return The number of records discarded because the queue was full.
+     */
+    final public long getDroppedCount()
+    {
+        return this.dropped.get();
+    }
+
+    /**
+     * @return Approximate number of records waiting to be handled.
+     */
+    final public int getQueueDepth()
+    {
+        return this.queue.size();
+    }
+
+    /**
+     * @return The number of records that can wait to be handled.
+     */
+    final public int getCapacity()
+    {
+        return this.queue.getCapacity();
+    }
+
+    /**
+     * Stops the dispatcher thread once the queued records are handled.
+     *
+     * Records logged after this is invoked are handled on the logging thread.
+     *
+     * @param timeout Maximum time to wait for the queue to drain.
+     * @param unit Unit of the timeout.
+     * @return Whether the dispatcher thread finished within the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        this.running = false;
+        LockSupport.unpark(this.dispatcher);
+        this.dispatcher.join(Math.max(1, unit.toMillis(timeout)));
+
+        return false == this.dispatcher.isAlive();
+    }
+
+    /**
+     * Sends a record to the wrapped handler from the dispatcher thread.
+     *
+     * Exceptions are reported to the thread's uncaught exception handler
+     * without stopping the dispatcher, so one failing record does not stop
+     * the remaining records from being handled.
+     */
+    private void dispatch(Record record)
+    {
+        try {
+            this.handler.handle(record);
+        } catch (RuntimeException exception) {
+            Thread thread = Thread.currentThread();
+            Thread.UncaughtExceptionHandler uncaught = thread.getUncaughtExceptionHandler();
+            if (null != uncaught) {
+                uncaught.uncaughtException(thread, exception);
+            }
+        }
+    }
+
+    /**
+     * Drains the queue in batches until the handler is shut down.
+     */
+    private class Dispatcher implements Runnable
+    {
+        final private Record[] batch = new Record[BATCH_SIZE];
+
+        @Override
+        public void run()
+        {
+            while (true) {
+                int count = queue.drain(this.batch);
+
+                if (0 == count) {
+                    if (false == running) {
+                        return;
+                    }
+
+                    idle = true;
+                    if (0 == queue.size() && running) {
+                        LockSupport.parkNanos(this, IDLE_NANOS);
+                    }
+                    idle = false;
+                    continue;
+                }
+
+                for (int index = 0; index < count; index++) {
+                    dispatch(this.batch[index]);
+                    this.batch[index] = null;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.async;
+
+/**
+ * Describes what an async handler does with a record when its queue is full.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public enum OverflowPolicy
+{
+    /** Wait on the logging thread until there is room in the queue. */
+    BLOCK,
+    /** Discard the record being logged. */
+    DROP_NEWEST,
+    /** Discard the oldest queued record to make room for the new one. */
+    DROP_OLDEST,
+    /**
+     * Handle ERROR and FATAL records on the logging thread, and discard
+     * records of any lower level.
+     */
+    SYNCHRONOUS_ERRORS
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.async;
+
+import monolog.Record;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded, lock-free queue of records.
+ *
+ * The queue is a preallocated ring of slots, each stamped with a sequence
+ * number that tells producers and consumers whether the slot is free to write
+ * or ready to read. Any number of threads may offer and poll at once, which
+ * lets producers discard the oldest record when the queue is full.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class RecordQueue
+{
+    final private Record[] slots;
+    final private AtomicLongArray sequences;
+    final private int mask;
+    final private AtomicLong tail = new AtomicLong();
+    final private AtomicLong head = new AtomicLong();
+
+    /**
+     * @param capacity Minimum number of records the queue can hold. Rounded up
+     *                 to the next power of two.
+     */
+    public RecordQueue(int capacity)
+    {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Queue capacity must be between 1 and 2^30.");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        this.slots = new Record[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+
+        for (int index = 0; index < size; index++) {
+            this.sequences.set(index, index);
+        }
+    }
+
+    /**
+     * @return The number of records the queue can hold.
+     */
+    final public int getCapacity()
+    {
+        return this.slots.length;
+    }
+
+    /**
+     * @return Approximate number of records waiting in the queue.
+     */
+    final public int size()
+    {
+        long size = this.tail.get() - this.head.get();
+
+        return (int) Math.max(0, Math.min(size, this.slots.length));
+    }
+
+    /**
+     * @param record The record to add to the end of the queue.
+     * @return Whether the record was added, or false if the queue was full.
+     */
+    final public boolean offer(Record record)
+    {
+        long position = this.tail.get();
+        int index;
+
+        while (true) {
+            index = (int) position & this.mask;
+            long difference = this.sequences.get(index) - position;
+
+            if (0 == difference) {
+                if (this.tail.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+
+            position = this.tail.get();
+        }
+
+        this.slots[index] = record;
+        this.sequences.set(index, position + 1);
+
+        return true;
+    }
+
+    /**
+     * @return The record at the front of the queue, or null if it is empty.
+     */
+    final public Record poll()
+    {
+        long position = this.head.get();
+        int index;
+
+        while (true) {
+            index = (int) position & this.mask;
+            long difference = this.sequences.get(index) - (position + 1);
+
+            if (0 == difference) {
+                if (this.head.compareAndSet(position, position + 1)) {
+                    break;
+                }
+            } else if (difference < 0) {
+                return null;
+            }
+
+            position = this.head.get();
+        }
+
+        Record record = this.slots[index];
+        this.slots[index] = null;
+        this.sequences.set(index, position + this.slots.length);
+
+        return record;
+    }
+
+    /**
+     * Moves as many queued records as will fit into a batch.
+     *
+     * @param batch Destination for the records, filled from the start.
+     * @return The number of records moved into the batch.
+     */
+    final public int drain(Record[] batch)
+    {
+        int count = 0;
+
+        while (count < batch.length) {
+            Record record = this.poll();
+            if (null == record) {
+                break;
+            }
+
+            batch[count++] = record;
+        }
+
+        return count;
+    }
+}
@@ -5,8 +5,9 @@
 package monolog.handler.console;
 
 import android.util.Log;
+import monolog.Context;
 import monolog.LogLevel;
-import monolog.LogName;
+import monolog.LogNames;
 import monolog.Record;
 import monolog.handler.HandlerResult;
 import monolog.handler.SwitchedHandler;
@@ -14,6 +15,10 @@ import monolog.handler.SwitchedHandler;
 /**
  * Sends logged messages to the Android ADB log.
  *
+ * Records logged through a child logger are tagged with the child's name, so
+ * a single handler can serve every component of an application. Context
+ * fields of a record are written after its message.
+ *
  * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
  */
 @SuppressWarnings("UnusedDeclaration")
@@ -22,7 +27,8 @@ public class ConsoleHandler extends SwitchedHandler
     final private String tag;
 
     /**
-     * @param tag Tag to use when logging in ADB's log.
+     * @param tag Tag to use in ADB's log for records that have no tag of
+     *            their own.
      * @param levels Log levels that this will be enabled for.
      */
     public ConsoleHandler(String tag, LogLevel[] levels)
@@ -48,25 +54,30 @@ public class ConsoleHandler extends SwitchedHandler
     protected void sendToConsole(Record record)
     {
         String message = this.getDisplayedMessage(record);
+        Context context = record.getContext();
+        if (false == context.isEmpty()) {
+            message = message + " " + context;
+        }
+        String tag = null == record.getTag() ? this.tag : record.getTag();
 
         switch (record.getLevel()) {
             case TRACE:
-                Log.v(this.tag, message, record.getCause());
+                Log.v(tag, message, record.getCause());
                 break;
             case DEBUG:
-                Log.d(this.tag, message, record.getCause());
+                Log.d(tag, message, record.getCause());
                 break;
             case INFO:
-                Log.i(this.tag, message, record.getCause());
+                Log.i(tag, message, record.getCause());
                 break;
             case WARN:
-                Log.w(this.tag, message, record.getCause());
+                Log.w(tag, message, record.getCause());
                 break;
             case ERROR:
-                Log.e(this.tag, message, record.getCause());
+                Log.e(tag, message, record.getCause());
                 break;
             case FATAL:
-                Log.e(this.tag, message, record.getCause());
+                Log.e(tag, message, record.getCause());
                 break;
         }
     }
@@ -82,10 +93,11 @@ public class ConsoleHandler extends SwitchedHandler
             return "null";
         }
 
-        if (message.getClass().isAnnotationPresent(LogName.class)) {
-            return message.getClass().getAnnotation(LogName.class).value();
+        String name = LogNames.getName(message.getClass());
+        if (null != name) {
+            return name;
         }
 
-        return message.toString();
+        return logged.getMessageString();
     }
 }
@@ -5,7 +5,6 @@
 package monolog.handler.crashy;
 
 import monolog.LogLevel;
-import monolog.LogName;
 import monolog.Record;
 import monolog.handler.HandlerResult;
 import monolog.handler.SwitchedHandler;
@@ -36,12 +35,12 @@ public class CrashyHandler extends SwitchedHandler
      */
     private String getDisplayedMessage(Record logged)
     {
-        Object message = logged.getMessage();
+        String message = logged.getMessageString();
 
         if (null == message) {
             return "null";
         }
 
-        return message.toString();
+        return message;
     }
 }
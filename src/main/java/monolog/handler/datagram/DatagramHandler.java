@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.datagram;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.HandlerResult;
+import monolog.handler.SwitchedHandler;
+import monolog.handler.async.RecordQueue;
+import monolog.handler.file.ByteSink;
+import monolog.handler.file.RecordEncoder;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Streams records to a collector over UDP, such as a syslog server.
+ *
+ * Records are queued and the logging thread returns right away. A single
+ * sender thread encodes them and packs as many as fit into each datagram,
+ * one record per line, sending a datagram once it is full or the queue has
+ * been empty for a couple of milliseconds. A collector must split each
+ * datagram into lines; this is not the one message per datagram of RFC 5426,
+ * in exchange for far fewer packets under load. Records longer than a
+ * datagram are cut off.
+ *
+ * The sender writes to a non-blocking channel from a single reused direct
+ * buffer, waiting a short time for room in the socket's send buffer before
+ * giving up on a datagram. UDP gives no guarantee of delivery, so records are
+ * dropped rather than slowing the application down: when the queue is full,
+ * and when a datagram cannot be sent.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class DatagramHandler extends SwitchedHandler
+{
+    final private static int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * Largest datagram that fits an Ethernet MTU of 1500 bytes, after the IPv4
+     * and UDP headers.
+     */
+    final private static int DEFAULT_DATAGRAM_SIZE = 1472;
+
+    final private static int BATCH_SIZE = 64;
+    final private static long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    final private static long LINGER_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+    final private static long SEND_TIMEOUT_MILLIS = 100;
+
+    final private InetSocketAddress destination;
+    final private RecordEncoder encoder;
+    final private int datagramSize;
+    final private RecordQueue queue;
+    final private AtomicLong dropped = new AtomicLong();
+    final private Thread sender;
+    private volatile boolean running = true;
+    private volatile boolean idle = false;
+    private volatile long sentRecords;
+    private volatile long sentDatagrams;
+
+    /**
+     * Sends RFC 5424 syslog messages in datagrams that fit an Ethernet MTU.
+     *
+     * @param destination Address of the collector.
+     * @param hostname Name of the device to send in each message, or null.
+     * @param appName Name of the application to send in each message, or null.
+     * @param levels Log levels that this will be enabled for.
+     */
+    public DatagramHandler(InetSocketAddress destination, String hostname, String appName, LogLevel[] levels)
+    {
+        this(
+            destination,
+            levels,
+            new SyslogRecordEncoder(hostname, appName),
+            DEFAULT_DATAGRAM_SIZE,
+            DEFAULT_CAPACITY
+        );
+    }
+
+    /**
+     * @param destination Address of the collector.
+     * @param levels Log levels that this will be enabled for.
+     * @param encoder Format to write the records in. Started again for each
+     *                datagram, so that every datagram can be read on its own.
+     * @param datagramSize Most bytes to send in each datagram.
+     * @param capacity Number of records that can wait to be sent, rounded up
+     *                 to the next power of two.
+     */
+    public DatagramHandler(
+        InetSocketAddress destination,
+        LogLevel[] levels,
+        RecordEncoder encoder,
+        int datagramSize,
+        int capacity
+    ) {
+        super(levels);
+
+        if (datagramSize < 1 || datagramSize > 65507) {
+            throw new IllegalArgumentException("Datagram size must be from 1 to 65507 bytes.");
+        }
+
+        this.destination = destination;
+        this.encoder = encoder;
+        this.datagramSize = datagramSize;
+        this.queue = new RecordQueue(capacity);
+        this.sender = new Thread(new Sender(), "monolog-datagram");
+        this.sender.setDaemon(true);
+        this.sender.start();
+    }
+
+    @Override
+    protected HandlerResult log(Record record)
+    {
+        if (false == this.running || false == this.queue.offer(record.copy())) {
+            this.dropped.incrementAndGet();
+            return HandlerResult.PASSED;
+        }
+
+        if (this.idle) {
+            LockSupport.unpark(this.sender);
+        }
+
+        return HandlerResult.HANDLED;
+    }
+
+    /**
+     * @return The number of records discarded because the queue was full or
+     *         their datagram could not be sent.
+     */
+    final public long getDroppedCount()
+    {
+        return this.dropped.get();
+    }
+
+    /**
+     * @return The number of records sent.
+     */
+    final public long getSentCount()
+    {
+        return this.sentRecords;
+    }
+
+    /**
+     * @return The number of datagrams sent.
+     */
+    final public long getDatagramCount()
+    {
+        return this.sentDatagrams;
+    }
+
+    /**
+     * Stops the sender thread once the queued records are sent.
+     *
+     * Records logged after this is invoked are dropped.
+     *
+     * @param timeout Maximum time to wait for the queue to drain.
+     * @param unit Unit of the timeout.
+     * @return Whether the sender thread finished within the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        this.running = false;
+        LockSupport.unpark(this.sender);
+        this.sender.join(Math.max(1, unit.toMillis(timeout)));
+
+        return false == this.sender.isAlive();
+    }
+
+    /**
+     * Packs queued records into datagrams until the handler is shut down.
+     */
+    private class Sender implements Runnable
+    {
+        final private Record[] batch = new Record[BATCH_SIZE];
+        final private ByteBuffer buffer = ByteBuffer.allocateDirect(datagramSize);
+        final private ByteSink sink = new ByteSink(datagramSize);
+        private DatagramChannel channel;
+        private Selector selector;
+        private int packed;
+        private boolean lingered;
+
+        @Override
+        public void run()
+        {
+            try {
+                this.channel = DatagramChannel.open();
+                this.channel.configureBlocking(false);
+                this.selector = Selector.open();
+                this.channel.register(this.selector, SelectionKey.OP_WRITE);
+            } catch (IOException exception) {
+                running = false;
+                this.close();
+                this.discardQueue();
+                return;
+            }
+
+            try {
+                this.send();
+            } finally {
+                this.close();
+            }
+        }
+
+        private void send()
+        {
+            while (true) {
+                int count = queue.drain(this.batch);
+
+                if (0 == count) {
+                    if (this.packed > 0 && false == this.lingered && running) {
+                        // Give records logged in quick succession a chance to
+                        // share the datagram, without being woken for each.
+                        this.lingered = true;
+                        LockSupport.parkNanos(this, LINGER_NANOS);
+                        continue;
+                    }
+
+                    this.flush();
+                    if (false == running) {
+                        return;
+                    }
+
+                    idle = true;
+                    if (0 == queue.size() && running) {
+                        LockSupport.parkNanos(this, IDLE_NANOS);
+                    }
+                    idle = false;
+                    continue;
+                }
+
+                for (int index = 0; index < count; index++) {
+                    this.packSafely(this.batch[index]);
+                    this.batch[index] = null;
+                }
+            }
+        }
+
+        /**
+         * Packs a record, reporting exceptions to the thread's uncaught
+         * exception handler without stopping the sender.
+         */
+        private void packSafely(Record record)
+        {
+            try {
+                this.pack(record);
+            } catch (RuntimeException exception) {
+                dropped.incrementAndGet();
+                Thread thread = Thread.currentThread();
+                Thread.UncaughtExceptionHandler uncaught = thread.getUncaughtExceptionHandler();
+                if (null != uncaught) {
+                    uncaught.uncaughtException(thread, exception);
+                }
+            }
+        }
+
+        /**
+         * Adds a record to the current datagram, sending the datagram first
+         * if the record does not fit.
+         */
+        private void pack(Record record)
+        {
+            if (0 == this.packed) {
+                this.start();
+            }
+
+            this.sink.clear();
+            encoder.encode(record, this.sink);
+
+            if (this.sink.size() > this.buffer.remaining() && this.packed > 0) {
+                this.flush();
+                this.start();
+                this.sink.clear();
+                encoder.encode(record, this.sink);
+            }
+
+            this.sink.copyTo(this.buffer, this.buffer.remaining());
+            this.packed++;
+        }
+
+        /**
+         * Starts a new datagram with the encoder's header.
+         */
+        private void start()
+        {
+            this.buffer.clear();
+            this.sink.clear();
+            encoder.start(this.sink);
+            this.sink.copyTo(this.buffer, this.buffer.remaining());
+        }
+
+        /**
+         * Sends the current datagram, if it has any records, waiting for room
+         * in the socket's send buffer if needed.
+         */
+        private void flush()
+        {
+            if (0 == this.packed) {
+                return;
+            }
+
+            this.buffer.flip();
+            boolean sent = false;
+            try {
+                while (true) {
+                    if (this.channel.send(this.buffer, destination) > 0) {
+                        sent = true;
+                        break;
+                    }
+                    if (0 == this.selector.select(SEND_TIMEOUT_MILLIS)) {
+                        break;
+                    }
+                    this.selector.selectedKeys().clear();
+                }
+            } catch (IOException exception) {
+                sent = false;
+            }
+
+            if (sent) {
+                sentRecords += this.packed;
+                sentDatagrams++;
+            } else {
+                dropped.addAndGet(this.packed);
+            }
+
+            this.buffer.clear();
+            this.packed = 0;
+            this.lingered = false;
+        }
+
+        private void discardQueue()
+        {
+            while (null != queue.poll()) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        private void close()
+        {
+            try {
+                if (null != this.selector) {
+                    this.selector.close();
+                }
+                if (null != this.channel) {
+                    this.channel.close();
+                }
+            } catch (IOException exception) {
+                // Nothing more will be sent.
+            }
+        }
+    }
+}
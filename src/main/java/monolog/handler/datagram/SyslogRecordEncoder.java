@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.datagram;
+
+import monolog.Context;
+import monolog.Record;
+import monolog.ThrowableRenderer;
+import monolog.handler.file.ByteSink;
+import monolog.handler.file.RecordEncoder;
+
+/**
+ * Writes records as RFC 5424 syslog messages, one per line.
+ *
+ * The record's tag is written as the message ID, and its context fields as
+ * the parameters of a single structured data element. Causes are written
+ * after the message as a stack trace. Control characters in the message,
+ * trace and parameter values, such as line breaks, are written as a '#' and
+ * three octal digits, as rsyslog does, so that every record takes exactly
+ * one line.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class SyslogRecordEncoder implements RecordEncoder
+{
+    /**
+     * Facility for messages from user programs.
+     */
+    final public static int FACILITY_USER = 1;
+
+    /**
+     * Structured data element ID under the enterprise number reserved for
+     * documentation by RFC 5612.
+     */
+    final public static String DEFAULT_STRUCTURED_DATA_ID = "context@32473";
+
+    final private static int MAX_HOSTNAME = 255;
+    final private static int MAX_APP_NAME = 48;
+    final private static int MAX_NAME = 32;
+
+    /**
+     * Syslog severity of each log level, indexed by ordinal.
+     */
+    final private static int[] SEVERITIES = {7, 7, 6, 4, 3, 2};
+
+    final private int facility;
+    final private String header;
+    final private String structuredDataId;
+    final private ParameterWriter parameters = new ParameterWriter();
+
+    /**
+     * Writes messages from the user facility, with context fields under the
+     * default structured data ID.
+     *
+     * @param hostname Name of the device sending the messages, or null.
+     * @param appName Name of the application sending the messages, or null.
+     */
+    public SyslogRecordEncoder(String hostname, String appName)
+    {
+        this(hostname, appName, FACILITY_USER, DEFAULT_STRUCTURED_DATA_ID);
+    }
+
+    /**
+     * @param hostname Name of the device sending the messages, or null.
+     * @param appName Name of the application sending the messages, or null.
+     * @param facility Syslog facility code, from 0 to 23.
+     * @param structuredDataId ID of the element that context fields are
+     *                         written under, such as "context@" followed by
+     *                         an enterprise number.
+     */
+    public SyslogRecordEncoder(String hostname, String appName, int facility, String structuredDataId)
+    {
+        if (facility < 0 || facility > 23) {
+            throw new IllegalArgumentException("Facility must be from 0 to 23.");
+        }
+
+        this.facility = facility;
+        this.header = " " + sanitize(hostname, MAX_HOSTNAME) + " " + sanitize(appName, MAX_APP_NAME) + " - ";
+        this.structuredDataId = sanitize(structuredDataId, MAX_NAME);
+    }
+
+    /**
+     * @return The value as printable ASCII without spaces, cut off at a
+     *         length, or "-" if it is empty.
+     */
+    private static String sanitize(String value, int maxLength)
+    {
+        if (null == value || value.isEmpty()) {
+            return "-";
+        }
+
+        StringBuilder builder = new StringBuilder(Math.min(value.length(), maxLength));
+        for (int index = 0; index < value.length() && builder.length() < maxLength; index++) {
+            char character = value.charAt(index);
+            builder.append(character > ' ' && character < 0x7F ? character : '_');
+        }
+
+        return builder.toString();
+    }
+
+    @Override
+    public void start(ByteSink sink)
+    {
+    }
+
+    @Override
+    public void encode(Record record, ByteSink sink)
+    {
+        sink.writeByte('<');
+        writeNumber(this.facility * 8 + SEVERITIES[record.getLevel().ordinal()], sink);
+        sink.writeUtf8(">1 ");
+        sink.writeTimestamp(record.getTimestamp());
+        sink.writeUtf8(this.header);
+        writeName(record.getTag(), MAX_NAME, sink);
+        sink.writeByte(' ');
+
+        Context context = record.getContext();
+        if (context.isEmpty()) {
+            sink.writeByte('-');
+        } else {
+            sink.writeByte('[');
+            sink.writeUtf8(this.structuredDataId);
+            this.parameters.sink = sink;
+            context.forEach(this.parameters);
+            this.parameters.sink = null;
+            sink.writeByte(']');
+        }
+
+        sink.writeByte(' ');
+        String message = record.getMessageString();
+        writeEscaped(null == message ? "null" : message, sink);
+
+        if (null != record.getCause()) {
+            String trace = ThrowableRenderer.getShared().render(record.getCause());
+            sink.writeUtf8("#012");
+            // Leave off the line break that ends the trace.
+            writeEscaped(trace.substring(0, trace.length() - 1), sink);
+        }
+
+        sink.writeByte('\n');
+    }
+
+    private static void writeNumber(int value, ByteSink sink)
+    {
+        if (value >= 100) {
+            sink.writeByte('0' + value / 100);
+        }
+        if (value >= 10) {
+            sink.writeByte('0' + value / 10 % 10);
+        }
+        sink.writeByte('0' + value % 10);
+    }
+
+    /**
+     * Writes a header field as printable ASCII, replacing spaces and other
+     * characters with underscores, or "-" if it is empty.
+     */
+    private static void writeName(String value, int maxLength, ByteSink sink)
+    {
+        if (null == value || value.isEmpty()) {
+            sink.writeByte('-');
+            return;
+        }
+
+        int length = Math.min(value.length(), maxLength);
+        for (int index = 0; index < length; index++) {
+            char character = value.charAt(index);
+            sink.writeByte(character > ' ' && character < 0x7F ? character : '_');
+        }
+    }
+
+    /**
+     * Writes text with each control character written as '#' and three
+     * octal digits.
+     */
+    private static void writeEscaped(String value, ByteSink sink)
+    {
+        int start = 0;
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (false == Character.isISOControl(character)) {
+                continue;
+            }
+
+            sink.writeUtf8(value, start, index);
+            writeOctal(character, sink);
+            start = index + 1;
+        }
+        sink.writeUtf8(value, start, value.length());
+    }
+
+    /**
+     * Writes a structured data parameter value, escaping the characters that
+     * would end it and writing control characters as '#' and three octal
+     * digits.
+     */
+    private static void writeParameterValue(String value, ByteSink sink)
+    {
+        int start = 0;
+        for (int index = 0; index < value.length(); index++) {
+            char character = value.charAt(index);
+            if (Character.isISOControl(character)) {
+                sink.writeUtf8(value, start, index);
+                writeOctal(character, sink);
+                start = index + 1;
+            } else if ('"' == character || '\\' == character || ']' == character) {
+                sink.writeUtf8(value, start, index);
+                sink.writeByte('\\');
+                start = index;
+            }
+        }
+        sink.writeUtf8(value, start, value.length());
+    }
+
+    /**
+     * Writes a control character as '#' and three octal digits.
+     */
+    private static void writeOctal(char character, ByteSink sink)
+    {
+        sink.writeByte('#');
+        sink.writeByte('0' + (character >> 6));
+        sink.writeByte('0' + (character >> 3 & 7));
+        sink.writeByte('0' + (character & 7));
+    }
+
+    /**
+     * Writes each context field as a structured data parameter.
+     *
+     * Reused for every record, since an encoder is only used by one thread
+     * at a time.
+     */
+    private static class ParameterWriter implements Context.Visitor
+    {
+        private ByteSink sink;
+
+        @Override
+        public void visit(String key, Object value)
+        {
+            this.sink.writeByte(' ');
+            for (int index = 0; index < key.length() && index < MAX_NAME; index++) {
+                char character = key.charAt(index);
+                boolean allowed = character > ' ' && character < 0x7F && '=' != character && ']' != character && '"' != character;
+                this.sink.writeByte(allowed ? character : '_');
+            }
+            this.sink.writeUtf8("=\"");
+            writeParameterValue(String.valueOf(value), this.sink);
+            this.sink.writeByte('"');
+        }
+    }
+}
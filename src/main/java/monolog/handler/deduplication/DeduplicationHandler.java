@@ -0,0 +1,395 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.deduplication;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import monolog.handler.LeveledHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Collapses bursts of repeated records sent to another handler.
+ *
+ * The first of a run of repeated records is sent on, and the repeats that
+ * follow within the time window are held back. Once the burst ends, because
+ * the window passes without a repeat or the record is pushed out by others,
+ * a single record is sent with the number of times it was repeated. A
+ * background thread ends bursts once their window passes, so the count is
+ * sent even if nothing else is logged; call `shutdown` to stop it and send
+ * the counts of the bursts still running.
+ *
+ * Records are repeats if they have the same level, message and type and
+ * message of cause. Only a fixed number of recent records are tracked; by
+ * default just the last one, so that only consecutive repeats are collapsed.
+ * Tracking more catches repeats that are interleaved with other records.
+ *
+ * The records to send are picked while holding a lock, and sent to the
+ * wrapped handler after it is released, so that logging threads do not wait
+ * on each other's calls to the wrapped handler.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class DeduplicationHandler implements LeveledHandler
+{
+    final private Handler handler;
+    final private long windowNanos;
+    final private Entry[] entries;
+    final private Thread sweeper;
+    private volatile boolean running = true;
+    private volatile boolean idle = false;
+
+    /**
+     * Collapses consecutive repeats.
+     *
+     * @param handler The handler to send records to.
+     * @param windowMillis Time after the last repeat that a burst ends.
+     */
+    public DeduplicationHandler(Handler handler, long windowMillis)
+    {
+        this(handler, windowMillis, 1);
+    }
+
+    /**
+     * @param handler The handler to send records to.
+     * @param windowMillis Time after the last repeat that a burst ends.
+     * @param tracked Number of recent distinct records to watch for repeats.
+     */
+    public DeduplicationHandler(Handler handler, long windowMillis, int tracked)
+    {
+        if (tracked < 1) {
+            throw new IllegalArgumentException("At least one record must be tracked.");
+        }
+
+        this.handler = handler;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+        this.entries = new Entry[tracked];
+
+        for (int index = 0; index < tracked; index++) {
+            this.entries[index] = new Entry();
+        }
+
+        this.sweeper = new Thread(new Sweeper(), "monolog-deduplication");
+        this.sweeper.setDaemon(true);
+        this.sweeper.start();
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level)
+    {
+        if (this.handler instanceof LeveledHandler) {
+            return ((LeveledHandler) this.handler).isEnabled(level);
+        }
+
+        return true;
+    }
+
+    /**
+     * Held back repeats are reported as `HANDLED`. Records that are sent on
+     * report the wrapped handler's result.
+     */
+    @Override
+    public HandlerResult handle(Record record)
+    {
+        long now = System.nanoTime();
+        int fingerprint = fingerprint(record);
+        List<Burst> ended = null;
+        boolean repeated = false;
+
+        synchronized (this.entries) {
+            Entry oldest = null;
+
+            for (Entry entry : this.entries) {
+                if (null != entry.record && now - entry.lastSeen > this.windowNanos) {
+                    ended = end(entry, ended);
+                }
+
+                if (null != entry.record && fingerprint == entry.fingerprint && matches(entry.record, record)) {
+                    entry.repeats++;
+                    entry.lastSeen = now;
+                    if (1 == entry.repeats && this.idle) {
+                        LockSupport.unpark(this.sweeper);
+                    }
+                    repeated = true;
+                    break;
+                }
+
+                if (null == oldest || null == entry.record || (null != oldest.record && entry.lastSeen - oldest.lastSeen < 0)) {
+                    oldest = entry;
+                }
+            }
+
+            if (false == repeated) {
+                ended = end(oldest, ended);
+                oldest.record = record.copy();
+                oldest.fingerprint = fingerprint;
+                oldest.lastSeen = now;
+            }
+        }
+
+        // Bursts ended while looking for a match are sent even if this record
+        // is held back, since they are no longer tracked.
+        this.send(ended);
+
+        if (repeated) {
+            return HandlerResult.HANDLED;
+        }
+
+        return this.handler.handle(record);
+    }
+
+    /**
+     * Ends every burst being tracked, sending the number of repeats held back.
+     */
+    public void flush()
+    {
+        List<Burst> ended = null;
+        synchronized (this.entries) {
+            for (Entry entry : this.entries) {
+                ended = end(entry, ended);
+            }
+        }
+
+        this.send(ended);
+    }
+
+    /**
+     * Stops the background thread, then ends every burst being tracked.
+     *
+     * @param timeout Maximum time to wait for the background thread.
+     * @param unit Unit of the timeout.
+     * @return Whether the background thread finished within the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        this.running = false;
+        LockSupport.unpark(this.sweeper);
+        this.sweeper.join(Math.max(1, unit.toMillis(timeout)));
+        this.flush();
+
+        return false == this.sweeper.isAlive();
+    }
+
+    /**
+     * Ends the bursts whose window has passed.
+     *
+     * @return Time until the next burst with repeats could end, or -1 if no
+     *         burst has any repeats.
+     */
+    private long sweep(long now)
+    {
+        List<Burst> ended = null;
+        long next = -1;
+
+        synchronized (this.entries) {
+            for (Entry entry : this.entries) {
+                if (null == entry.record) {
+                    continue;
+                }
+
+                long remaining = entry.lastSeen + this.windowNanos - now;
+                if (remaining < 0) {
+                    ended = end(entry, ended);
+                } else if (entry.repeats > 0 && (-1 == next || remaining < next)) {
+                    next = remaining + 1;
+                }
+            }
+        }
+
+        this.send(ended);
+
+        return next;
+    }
+
+    /**
+     * Stops tracking a record, adding it to the list of ended bursts if it
+     * was repeated.
+     *
+     * Must be invoked while holding the lock on the entries.
+     *
+     * @return The list of ended bursts, created if this is the first.
+     */
+    private static List<Burst> end(Entry entry, List<Burst> ended)
+    {
+        Record record = entry.record;
+        int repeats = entry.repeats;
+
+        entry.record = null;
+        entry.repeats = 0;
+
+        if (null == record || 0 == repeats) {
+            return ended;
+        }
+
+        if (null == ended) {
+            ended = new ArrayList<Burst>(2);
+        }
+        ended.add(new Burst(record, repeats));
+
+        return ended;
+    }
+
+    /**
+     * Sends a count of the repeats of each ended burst.
+     */
+    private void send(List<Burst> ended)
+    {
+        if (null == ended) {
+            return;
+        }
+
+        for (Burst burst : ended) {
+            Record record = burst.record;
+            this.handler.handle(new Record(
+                record.getTag(),
+                record.getContext(),
+                record.getLevel(),
+                1 == burst.repeats ? "{} (repeated {} time)" : "{} (repeated {} times)",
+                2,
+                record.getMessageString(),
+                burst.repeats,
+                null,
+                null
+            ));
+        }
+    }
+
+    /**
+     * Hashes the parts of a record that are compared for repeats, without
+     * formatting templated messages.
+     */
+    private static int fingerprint(Record record)
+    {
+        int result = record.getLevel().ordinal();
+        result = 31 * result + hash(record.getTag());
+        result = 31 * result + hash(null != record.getTemplate() ? record.getTemplate() : record.getMessage());
+        for (int index = 0; index < record.getArgumentCount(); index++) {
+            result = 31 * result + hash(record.getArgument(index));
+        }
+
+        Throwable cause = record.getCause();
+        if (null != cause) {
+            result = 31 * result + cause.getClass().hashCode();
+            result = 31 * result + hash(cause.getMessage());
+        }
+
+        return result;
+    }
+
+    private static int hash(Object value)
+    {
+        return null == value ? 0 : value.hashCode();
+    }
+
+    /**
+     * @return Whether two records are repeats of each other.
+     */
+    private static boolean matches(Record first, Record second)
+    {
+        if (first.getLevel() != second.getLevel() || first.getArgumentCount() != second.getArgumentCount()) {
+            return false;
+        }
+        if (false == equal(first.getTag(), second.getTag())) {
+            return false;
+        }
+
+        if (0 == first.getArgumentCount()) {
+            if (false == equal(first.getMessage(), second.getMessage())) {
+                return false;
+            }
+        } else {
+            if (false == equal(first.getTemplate(), second.getTemplate())) {
+                return false;
+            }
+            for (int index = 0; index < first.getArgumentCount(); index++) {
+                if (false == equal(first.getArgument(index), second.getArgument(index))) {
+                    return false;
+                }
+            }
+        }
+
+        Throwable firstCause = first.getCause();
+        Throwable secondCause = second.getCause();
+        if (null == firstCause || null == secondCause) {
+            return firstCause == secondCause;
+        }
+
+        return firstCause.getClass() == secondCause.getClass()
+            && equal(firstCause.getMessage(), secondCause.getMessage());
+    }
+
+    private static boolean equal(Object first, Object second)
+    {
+        return first == null ? second == null : first.equals(second);
+    }
+
+    /**
+     * Ends bursts once their window passes, until the handler is shut down.
+     */
+    private class Sweeper implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            while (running) {
+                idle = true;
+                long wait;
+                try {
+                    wait = sweep(System.nanoTime());
+                } catch (RuntimeException exception) {
+                    wait = windowNanos;
+                    Thread thread = Thread.currentThread();
+                    Thread.UncaughtExceptionHandler uncaught = thread.getUncaughtExceptionHandler();
+                    if (null != uncaught) {
+                        uncaught.uncaughtException(thread, exception);
+                    }
+                }
+
+                if (false == running) {
+                    return;
+                }
+                if (wait < 0) {
+                    LockSupport.park(this);
+                } else {
+                    idle = false;
+                    LockSupport.parkNanos(this, wait);
+                }
+            }
+        }
+    }
+
+    /**
+     * A burst that has ended, and the number of repeats held back from it.
+     */
+    private static class Burst
+    {
+        final private Record record;
+        final private int repeats;
+
+        Burst(Record record, int repeats)
+        {
+            this.record = record;
+            this.repeats = repeats;
+        }
+    }
+
+    /**
+     * A recent record being watched for repeats.
+     */
+    private static class Entry
+    {
+        private Record record;
+        private int fingerprint;
+        private long lastSeen;
+        private int repeats;
+    }
+}
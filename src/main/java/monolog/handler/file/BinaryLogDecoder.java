@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import monolog.LogLevel;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads records back from files written by the binary record encoder.
+ *
+ * This only depends on the standard library, so it can be run on a
+ * workstation to turn log files pulled from a device back into text:
+ *
+ *     java -cp monolog.jar monolog.handler.file.BinaryLogDecoder app-*.log
+ *
+ * @see BinaryRecordEncoder
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class BinaryLogDecoder
+{
+    final private static LogLevel[] LEVELS = LogLevel.values();
+    final private static Object[] NO_ARGUMENTS = new Object[0];
+
+    final private DataInputStream input;
+    final private List<String> dictionary = new ArrayList<String>();
+    private long previousTimestamp;
+
+    /**
+     * @param input Contents of a binary log file, from the start.
+     * @throws IOException if the input is not a binary log file.
+     */
+    public BinaryLogDecoder(InputStream input) throws IOException
+    {
+        this.input = new DataInputStream(input);
+
+        byte[] magic = new byte[BinaryRecordEncoder.MAGIC.length];
+        this.input.readFully(magic);
+        for (int index = 0; index < magic.length; index++) {
+            if (magic[index] != BinaryRecordEncoder.MAGIC[index]) {
+                throw new IOException("Not a binary log file");
+            }
+        }
+
+        int version = this.input.readUnsignedByte();
+        if (BinaryRecordEncoder.VERSION != version) {
+            throw new IOException("Unsupported binary log version " + version);
+        }
+    }
+
+    /**
+     * @return The next record in the file, or null at the end of the file.
+     * @throws EOFException if the file ends part way through an entry.
+     * @throws IOException if the file is corrupt or cannot be read.
+     */
+    public DecodedRecord read() throws IOException
+    {
+        while (true) {
+            int type = this.input.read();
+
+            switch (type) {
+                case -1:
+                case BinaryRecordEncoder.ENTRY_END:
+                    return null;
+                case BinaryRecordEncoder.ENTRY_STRING:
+                    this.readDictionaryString();
+                    break;
+                case BinaryRecordEncoder.ENTRY_RECORD:
+                    return this.readRecord();
+
+                default:
+                    throw new IOException("Unknown entry type " + type);
+            }
+        }
+    }
+
+    private void readDictionaryString() throws IOException
+    {
+        long id = this.readVarLong();
+        String value = this.readString((int) this.readVarLong());
+
+        if (id == this.dictionary.size()) {
+            this.dictionary.add(value);
+        } else if (id < this.dictionary.size()) {
+            this.dictionary.set((int) id, value);
+        } else {
+            throw new IOException("Dictionary string " + id + " is out of order");
+        }
+    }
+
+    private DecodedRecord readRecord() throws IOException
+    {
+        int level = this.input.readUnsignedByte();
+        if (level >= LEVELS.length) {
+            throw new IOException("Unknown log level " + level);
+        }
+
+        long timestamp = this.previousTimestamp + unZigZag(this.readVarLong());
+        String tag = this.readReference();
+        String template = this.readReference();
+
+        int argumentCount = (int) this.readVarLong();
+        if (argumentCount > 3) {
+            throw new IOException("Records hold at most three arguments, found " + argumentCount);
+        }
+        Object[] arguments = 0 == argumentCount ? NO_ARGUMENTS : new Object[argumentCount];
+        for (int index = 0; index < argumentCount; index++) {
+            arguments[index] = this.readArgument();
+        }
+
+        String causeClass = this.readReference();
+        String causeMessage = this.readReference();
+
+        this.previousTimestamp = timestamp;
+
+        return new DecodedRecord(LEVELS[level], timestamp, tag, template, arguments, causeClass, causeMessage);
+    }
+
+    private Object readArgument() throws IOException
+    {
+        int type = this.input.readUnsignedByte();
+
+        switch (type) {
+            case BinaryRecordEncoder.ARGUMENT_NULL:
+                return null;
+            case BinaryRecordEncoder.ARGUMENT_STRING:
+                return this.readReference();
+            case BinaryRecordEncoder.ARGUMENT_INTEGER:
+                return unZigZag(this.readVarLong());
+            case BinaryRecordEncoder.ARGUMENT_DOUBLE:
+                return Double.longBitsToDouble(this.input.readLong());
+            case BinaryRecordEncoder.ARGUMENT_TRUE:
+                return Boolean.TRUE;
+            case BinaryRecordEncoder.ARGUMENT_FALSE:
+                return Boolean.FALSE;
+
+            default:
+                throw new IOException("Unknown argument type " + type);
+        }
+    }
+
+    private String readReference() throws IOException
+    {
+        long reference = this.readVarLong();
+
+        if (0 == reference) {
+            return null;
+        }
+        if (1 == (reference & 1)) {
+            long id = reference >>> 1;
+            if (id >= this.dictionary.size()) {
+                throw new IOException("Unknown dictionary string " + id);
+            }
+
+            return this.dictionary.get((int) id);
+        }
+
+        return this.readString((int) ((reference >>> 1) - 1));
+    }
+
+    private String readString(int length) throws IOException
+    {
+        byte[] bytes = new byte[length];
+        this.input.readFully(bytes);
+
+        return new String(bytes, "UTF-8");
+    }
+
+    private long readVarLong() throws IOException
+    {
+        long value = 0;
+
+        for (int shift = 0; shift < 64; shift += 7) {
+            int current = this.input.readUnsignedByte();
+            value |= (long) (current & 0x7F) << shift;
+            if (0 == (current & 0x80)) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable length number");
+    }
+
+    private static long unZigZag(long value)
+    {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Prints each record in the given files as text.
+     *
+     * @param arguments Paths of the binary log files to print, in order,
+     *                  which may be gzipped.
+     */
+    public static void main(String[] arguments) throws IOException
+    {
+        if (0 == arguments.length) {
+            System.err.println("Usage: BinaryLogDecoder <file>...");
+            System.exit(2);
+        }
+
+        for (String path : arguments) {
+            InputStream stream = new BufferedInputStream(new FileInputStream(path));
+            if (path.endsWith(SegmentCompressor.EXTENSION)) {
+                stream = new GZIPInputStream(stream);
+            }
+            try {
+                BinaryLogDecoder decoder = new BinaryLogDecoder(stream);
+                for (DecodedRecord record = decoder.read(); null != record; record = decoder.read()) {
+                    System.out.println(record);
+                }
+            } catch (EOFException exception) {
+                System.err.println(path + ": file ends part way through a record");
+            } finally {
+                stream.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import monolog.Record;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Writes records in a compact binary format.
+ *
+ * Message templates and cause details are kept in a dictionary for each file,
+ * so a message that is logged repeatedly is written in full once, and then as
+ * a short ID. Template arguments are written as raw values.
+ *
+ * A file starts with the bytes `MLOG` and a version number, followed by
+ * entries that each start with a type byte:
+ *
+ *  - `0`: No more entries.
+ *  - `1`: A string: its dictionary ID, then the string.
+ *  - `2`: A record: its level, the time since the previous record, its
+ *    tag, its message template and arguments, and the class and message of its cause.
+ *
+ * Numbers are written as variable length integers, signed ones zig-zag
+ * encoded. Strings are written as a reference number: zero for null, an odd
+ * number for a dictionary ID, or an even number for a UTF-8 string of the
+ * following length that is not in the dictionary.
+ *
+ * @see BinaryLogDecoder
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class BinaryRecordEncoder implements RecordEncoder
+{
+    final static byte[] MAGIC = new byte[] {'M', 'L', 'O', 'G'};
+    final static int VERSION = 2;
+
+    final static int ENTRY_END = 0;
+    final static int ENTRY_STRING = 1;
+    final static int ENTRY_RECORD = 2;
+
+    final static int ARGUMENT_NULL = 0;
+    final static int ARGUMENT_STRING = 1;
+    final static int ARGUMENT_INTEGER = 2;
+    final static int ARGUMENT_DOUBLE = 3;
+    final static int ARGUMENT_TRUE = 4;
+    final static int ARGUMENT_FALSE = 5;
+
+    final private static int DEFAULT_DICTIONARY_SIZE = 4096;
+    final private static int MAX_DICTIONARY_STRING = 256;
+
+    final private int dictionarySize;
+    final private Map<String, Integer> dictionary = new HashMap<String, Integer>();
+    final private ByteSink scratch = new ByteSink(256);
+    private long previousTimestamp;
+
+    public BinaryRecordEncoder()
+    {
+        this(DEFAULT_DICTIONARY_SIZE);
+    }
+
+    /**
+     * @param dictionarySize Most strings to keep in each file's dictionary.
+     *                       Strings beyond this are written out in full.
+     */
+    public BinaryRecordEncoder(int dictionarySize)
+    {
+        this.dictionarySize = dictionarySize;
+    }
+
+    @Override
+    public void start(ByteSink sink)
+    {
+        this.dictionary.clear();
+        this.previousTimestamp = 0;
+
+        sink.write(MAGIC, 0, MAGIC.length);
+        sink.writeByte(VERSION);
+    }
+
+    @Override
+    public void encode(Record record, ByteSink sink)
+    {
+        String template = null != record.getTemplate() ? record.getTemplate() : record.getMessageString();
+        Throwable cause = record.getCause();
+        String causeClass = null == cause ? null : cause.getClass().getName();
+        String causeMessage = null == cause ? null : cause.getMessage();
+
+        // Dictionary entries must come before the record that uses them.
+        long tagReference = this.reference(record.getTag(), sink);
+        long templateReference = this.reference(template, sink);
+        long causeClassReference = this.reference(causeClass, sink);
+        long causeMessageReference = this.reference(causeMessage, sink);
+
+        long timestamp = record.getTimestamp();
+
+        sink.writeByte(ENTRY_RECORD);
+        sink.writeByte(record.getLevel().ordinal());
+        sink.writeVarLong(zigZag(timestamp - this.previousTimestamp));
+        this.writeReference(tagReference, record.getTag(), sink);
+        this.writeReference(templateReference, template, sink);
+
+        sink.writeVarLong(record.getArgumentCount());
+        for (int index = 0; index < record.getArgumentCount(); index++) {
+            this.writeArgument(record.getArgument(index), sink);
+        }
+
+        this.writeReference(causeClassReference, causeClass, sink);
+        this.writeReference(causeMessageReference, causeMessage, sink);
+
+        this.previousTimestamp = timestamp;
+    }
+
+    /**
+     * Finds the reference number of a string, adding it to the dictionary if
+     * there is room.
+     *
+     * @return The reference number, or -1 if the string is written in full.
+     */
+    private long reference(String value, ByteSink sink)
+    {
+        if (null == value) {
+            return 0;
+        }
+
+        Integer id = this.dictionary.get(value);
+        if (null != id) {
+            return ((long) id << 1) | 1;
+        }
+        if (value.length() > MAX_DICTIONARY_STRING || this.dictionary.size() >= this.dictionarySize) {
+            return -1;
+        }
+
+        id = this.dictionary.size();
+        this.dictionary.put(value, id);
+
+        sink.writeByte(ENTRY_STRING);
+        sink.writeVarLong(id);
+        this.writeString(value, sink);
+
+        return ((long) id << 1) | 1;
+    }
+
+    private void writeReference(long reference, String value, ByteSink sink)
+    {
+        if (-1 == reference) {
+            this.writeInline(value, sink);
+            return;
+        }
+
+        sink.writeVarLong(reference);
+    }
+
+    /**
+     * Writes a string that is not in the dictionary, as an even reference
+     * number holding its length, followed by its bytes.
+     */
+    private void writeInline(String value, ByteSink sink)
+    {
+        this.scratch.clear();
+        this.scratch.writeUtf8(value);
+
+        sink.writeVarLong(((long) this.scratch.size() + 1) << 1);
+        sink.write(this.scratch);
+    }
+
+    private void writeString(String value, ByteSink sink)
+    {
+        this.scratch.clear();
+        this.scratch.writeUtf8(value);
+
+        sink.writeVarLong(this.scratch.size());
+        sink.write(this.scratch);
+    }
+
+    private void writeArgument(Object argument, ByteSink sink)
+    {
+        if (null == argument) {
+            sink.writeByte(ARGUMENT_NULL);
+        } else if (argument instanceof Long
+            || argument instanceof Integer
+            || argument instanceof Short
+            || argument instanceof Byte
+        ) {
+            sink.writeByte(ARGUMENT_INTEGER);
+            sink.writeVarLong(zigZag(((Number) argument).longValue()));
+        } else if (argument instanceof Double || argument instanceof Float) {
+            long bits = Double.doubleToLongBits(((Number) argument).doubleValue());
+            sink.writeByte(ARGUMENT_DOUBLE);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                sink.writeByte((int) (bits >>> shift));
+            }
+        } else if (argument instanceof Boolean) {
+            sink.writeByte((Boolean) argument ? ARGUMENT_TRUE : ARGUMENT_FALSE);
+        } else {
+            sink.writeByte(ARGUMENT_STRING);
+            this.writeInline(argument.toString(), sink);
+        }
+    }
+
+    private static long zigZag(long value)
+    {
+        return (value << 1) ^ (value >> 63);
+    }
+}
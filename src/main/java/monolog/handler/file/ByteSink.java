@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.Checksum;
+
+/**
+ * Growable buffer that records are encoded into before being written.
+ *
+ * A sink is reused for every record, so encoding only allocates when the
+ * sink has to grow.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class ByteSink
+{
+    final private static long MILLIS_PER_DAY = 86400000L;
+
+    private byte[] bytes;
+    private int size;
+
+    /**
+     * @param capacity Number of bytes the sink can hold before growing.
+     */
+    public ByteSink(int capacity)
+    {
+        this.bytes = new byte[Math.max(16, capacity)];
+    }
+
+    /**
+     * @return Number of bytes written since the sink was last cleared.
+     */
+    final public int size()
+    {
+        return this.size;
+    }
+
+    /**
+     * Discards everything written to the sink.
+     */
+    final public void clear()
+    {
+        this.size = 0;
+    }
+
+    /**
+     * Copies the written bytes into a buffer.
+     *
+     * @param target Buffer to put the bytes into, at its current position.
+     */
+    final public void copyTo(ByteBuffer target)
+    {
+        target.put(this.bytes, 0, this.size);
+    }
+
+    /**
+     * Copies the start of the written bytes into a buffer.
+     *
+     * @param target Buffer to put the bytes into, at its current position.
+     * @param length Most bytes to copy.
+     * @return Number of bytes copied.
+     */
+    final public int copyTo(ByteBuffer target, int length)
+    {
+        int copied = Math.min(length, this.size);
+        target.put(this.bytes, 0, copied);
+
+        return copied;
+    }
+
+    /**
+     * Adds the written bytes to a checksum.
+     */
+    final public void updateChecksum(Checksum checksum)
+    {
+        checksum.update(this.bytes, 0, this.size);
+    }
+
+    final public void writeByte(int value)
+    {
+        this.ensureCapacity(1);
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    final public void write(byte[] values, int offset, int length)
+    {
+        this.ensureCapacity(length);
+        System.arraycopy(values, offset, this.bytes, this.size, length);
+        this.size += length;
+    }
+
+    /**
+     * Copies the bytes written to another sink into this one.
+     */
+    final public void write(ByteSink source)
+    {
+        this.write(source.bytes, 0, source.size);
+    }
+
+    /**
+     * Writes an unsigned value using seven bits per byte, with the high bit
+     * set on every byte but the last.
+     */
+    final public void writeVarLong(long value)
+    {
+        this.ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            this.bytes[this.size++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.bytes[this.size++] = (byte) value;
+    }
+
+    /**
+     * Writes the characters of a string as UTF-8.
+     */
+    final public void writeUtf8(CharSequence value)
+    {
+        this.writeUtf8(value, 0, value.length());
+    }
+
+    /**
+     * Writes part of a string as UTF-8.
+     *
+     * @param value The string to write from.
+     * @param start Index of the first character to write.
+     * @param end Index after the last character to write.
+     */
+    final public void writeUtf8(CharSequence value, int start, int end)
+    {
+        this.ensureCapacity(end - start);
+
+        for (int index = start; index < end; index++) {
+            char character = value.charAt(index);
+
+            if (character < 0x80) {
+                this.ensureCapacity(1);
+                this.bytes[this.size++] = (byte) character;
+            } else if (character < 0x800) {
+                this.ensureCapacity(2);
+                this.bytes[this.size++] = (byte) (0xC0 | (character >> 6));
+                this.bytes[this.size++] = (byte) (0x80 | (character & 0x3F));
+            } else if (Character.isHighSurrogate(character)
+                && index + 1 < end
+                && Character.isLowSurrogate(value.charAt(index + 1))
+            ) {
+                int codePoint = Character.toCodePoint(character, value.charAt(++index));
+                this.ensureCapacity(4);
+                this.bytes[this.size++] = (byte) (0xF0 | (codePoint >> 18));
+                this.bytes[this.size++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                this.bytes[this.size++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                this.bytes[this.size++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else {
+                if (character >= Character.MIN_SURROGATE && character <= Character.MAX_SURROGATE) {
+                    character = '?';
+                }
+                this.ensureCapacity(3);
+                this.bytes[this.size++] = (byte) (0xE0 | (character >> 12));
+                this.bytes[this.size++] = (byte) (0x80 | ((character >> 6) & 0x3F));
+                this.bytes[this.size++] = (byte) (0x80 | (character & 0x3F));
+            }
+        }
+    }
+
+    /**
+     * Writes a time as an ISO-8601 UTC timestamp, without formatting objects.
+     */
+    final public void writeTimestamp(long millis)
+    {
+        long days = millis / MILLIS_PER_DAY;
+        if (millis % MILLIS_PER_DAY < 0) {
+            days--;
+        }
+        long timeOfDay = millis - days * MILLIS_PER_DAY;
+
+        // Civil date from days since the epoch, by Howard Hinnant's algorithm.
+        long shifted = days + 719468;
+        long era = (shifted >= 0 ? shifted : shifted - 146096) / 146097;
+        long dayOfEra = shifted - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long shiftedMonth = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        long month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        this.writeDigits(year, 4);
+        this.writeByte('-');
+        this.writeDigits(month, 2);
+        this.writeByte('-');
+        this.writeDigits(day, 2);
+        this.writeByte('T');
+        this.writeDigits(timeOfDay / 3600000, 2);
+        this.writeByte(':');
+        this.writeDigits(timeOfDay / 60000 % 60, 2);
+        this.writeByte(':');
+        this.writeDigits(timeOfDay / 1000 % 60, 2);
+        this.writeByte('.');
+        this.writeDigits(timeOfDay % 1000, 3);
+        this.writeByte('Z');
+    }
+
+    private void writeDigits(long value, int width)
+    {
+        long divisor = 1;
+        for (int digit = 1; digit < width; digit++) {
+            divisor *= 10;
+        }
+
+        for (; divisor > 0; divisor /= 10) {
+            this.writeByte('0' + (int) (value / divisor % 10));
+        }
+    }
+
+    private void ensureCapacity(int additional)
+    {
+        if (this.size + additional <= this.bytes.length) {
+            return;
+        }
+
+        this.bytes = Arrays.copyOf(this.bytes, Math.max(this.bytes.length * 2, this.size + additional));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import monolog.LogLevel;
+import monolog.Record;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * A record read back from a binary log file.
+ *
+ * Causes cannot be rebuilt from the file, so only their class name and
+ * message are available.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class DecodedRecord
+{
+    final private LogLevel level;
+    final private long timestamp;
+    final private String tag;
+    final private String template;
+    final private Object[] arguments;
+    final private String causeClass;
+    final private String causeMessage;
+
+    DecodedRecord(
+        LogLevel level,
+        long timestamp,
+        String tag,
+        String template,
+        Object[] arguments,
+        String causeClass,
+        String causeMessage
+    ) {
+        this.level = level;
+        this.timestamp = timestamp;
+        this.tag = tag;
+        this.template = template;
+        this.arguments = arguments;
+        this.causeClass = causeClass;
+        this.causeMessage = causeMessage;
+    }
+
+    /**
+     * @return The severity level that the message was logged with.
+     */
+    final public LogLevel getLevel()
+    {
+        return this.level;
+    }
+
+    /**
+     * @return The time the record was logged, in milliseconds since the epoch.
+     */
+    final public long getTimestamp()
+    {
+        return this.timestamp;
+    }
+
+    /**
+     * @return Name of the logger that the record was logged with, if any.
+     */
+    final public String getTag()
+    {
+        return this.tag;
+    }
+
+    /**
+     * @return The message, or message template if logged with arguments.
+     */
+    final public String getTemplate()
+    {
+        return this.template;
+    }
+
+    /**
+     * @return The template arguments logged with the message. Numbers are
+     *         read back as Long or Double, and other objects as their string.
+     */
+    final public Object[] getArguments()
+    {
+        return this.arguments.clone();
+    }
+
+    /**
+     * @return Class name of the cause that was logged, if any.
+     */
+    final public String getCauseClass()
+    {
+        return this.causeClass;
+    }
+
+    /**
+     * @return Message of the cause that was logged, if any.
+     */
+    final public String getCauseMessage()
+    {
+        return this.causeMessage;
+    }
+
+    /**
+     * @return The message with its template arguments filled in.
+     */
+    final public String getMessage()
+    {
+        Object[] arguments = this.arguments;
+        Record record = new Record(
+            this.level,
+            this.template,
+            arguments.length,
+            arguments.length > 0 ? arguments[0] : null,
+            arguments.length > 1 ? arguments[1] : null,
+            arguments.length > 2 ? arguments[2] : null,
+            null
+        );
+
+        return record.getMessageString();
+    }
+
+    /**
+     * @return The record as a line of text, like the text record encoder's.
+     */
+    @Override
+    public String toString()
+    {
+        SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+
+        StringBuilder line = new StringBuilder();
+        line.append(format.format(new Date(this.timestamp)));
+        line.append(' ').append(this.level.name());
+        if (null != this.tag) {
+            line.append(' ').append(this.tag).append(':');
+        }
+        line.append(' ').append(this.getMessage());
+        if (null != this.causeClass) {
+            line.append('\n').append(this.causeClass);
+            if (null != this.causeMessage) {
+                line.append(": ").append(this.causeMessage);
+            }
+        }
+
+        return line.toString();
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.HandlerResult;
+import monolog.handler.SwitchedHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Appends records to rolling log files.
+ *
+ * Records are encoded and copied into a memory-mapped segment file, so they
+ * survive the application crashing as soon as they are logged. A new segment
+ * is started once the current one is full or too old. Finished segments can
+ * be compressed and pruned by a RetentionManager.
+ *
+ * Records at or above the durable level are not reported until they are
+ * written to the storage device. Writing to the device is shared: while one
+ * thread is syncing the file, others wait for it and are covered by the next
+ * sync together, rather than each syncing the file on their own. Records
+ * below the durable level are synced along with the next durable record, or
+ * when the segment is closed.
+ *
+ * Records that cannot be written are passed on to the next handler.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class FileHandler extends SwitchedHandler
+{
+    final private static int DEFAULT_SEGMENT_SIZE = 4 * 1024 * 1024;
+    final private static long DEFAULT_SEGMENT_AGE = TimeUnit.DAYS.toMillis(1);
+    final private static String EXTENSION = ".log";
+
+    final private File directory;
+    final private String name;
+    final private RecordEncoder encoder;
+    final private int segmentSize;
+    final private long maxSegmentAgeMillis;
+    final private LogLevel durableLevel;
+    final private SegmentListener listener;
+
+    final private Object appendLock = new Object();
+    final private ByteSink sink = new ByteSink(1024);
+    final private ByteSink header = new ByteSink(64);
+    private Segment segment;
+    private int sequence;
+    private long written;
+
+    final private Object commitLock = new Object();
+    private boolean committing;
+    private long committed;
+
+    /**
+     * Writes text records to 4MB segments that roll over daily, syncing the
+     * file for errors.
+     *
+     * @param directory Directory to write the segment files to.
+     * @param name Prefix of the segment file names.
+     * @param levels Log levels that this will be enabled for.
+     */
+    public FileHandler(File directory, String name, LogLevel[] levels)
+    {
+        this(
+            directory,
+            name,
+            levels,
+            new TextRecordEncoder(),
+            DEFAULT_SEGMENT_SIZE,
+            DEFAULT_SEGMENT_AGE,
+            LogLevel.ERROR
+        );
+    }
+
+    /**
+     * @param directory Directory to write the segment files to.
+     * @param name Prefix of the segment file names.
+     * @param levels Log levels that this will be enabled for.
+     * @param encoder Format to write the records in.
+     * @param segmentSize Number of bytes to write to a segment before starting
+     *                    a new one.
+     * @param maxSegmentAgeMillis Time to write to a segment before starting a
+     *                            new one.
+     * @param durableLevel Lowest level of records to sync to the storage
+     *                     device before returning.
+     */
+    public FileHandler(
+        File directory,
+        String name,
+        LogLevel[] levels,
+        RecordEncoder encoder,
+        int segmentSize,
+        long maxSegmentAgeMillis,
+        LogLevel durableLevel
+    ) {
+        this(directory, name, levels, encoder, segmentSize, maxSegmentAgeMillis, durableLevel, null);
+    }
+
+    /**
+     * @param directory Directory to write the segment files to.
+     * @param name Prefix of the segment file names.
+     * @param levels Log levels that this will be enabled for.
+     * @param encoder Format to write the records in.
+     * @param segmentSize Number of bytes to write to a segment before starting
+     *                    a new one.
+     * @param maxSegmentAgeMillis Time to write to a segment before starting a
+     *                            new one.
+     * @param durableLevel Lowest level of records to sync to the storage
+     *                     device before returning.
+     * @param listener Told as each segment is started and finished, such as a
+     *                 RetentionManager, or null.
+     */
+    public FileHandler(
+        File directory,
+        String name,
+        LogLevel[] levels,
+        RecordEncoder encoder,
+        int segmentSize,
+        long maxSegmentAgeMillis,
+        LogLevel durableLevel,
+        SegmentListener listener
+    ) {
+        super(levels);
+
+        if (segmentSize < 1) {
+            throw new IllegalArgumentException("Segments must hold at least one byte.");
+        }
+
+        this.directory = directory;
+        this.name = name;
+        this.encoder = encoder;
+        this.segmentSize = segmentSize;
+        this.maxSegmentAgeMillis = maxSegmentAgeMillis;
+        this.durableLevel = durableLevel;
+        this.listener = listener;
+    }
+
+    @Override
+    protected HandlerResult log(Record record)
+    {
+        long end;
+
+        synchronized (this.appendLock) {
+            try {
+                end = this.append(record);
+            } catch (IOException exception) {
+                return HandlerResult.PASSED;
+            }
+        }
+
+        if (record.getLevel().compareTo(this.durableLevel) >= 0) {
+            this.commit(end);
+        }
+
+        return HandlerResult.HANDLED;
+    }
+
+    /**
+     * Syncs every record written so far to the storage device.
+     */
+    public void flush()
+    {
+        long end;
+        synchronized (this.appendLock) {
+            end = this.written;
+        }
+
+        this.commit(end);
+    }
+
+    /**
+     * Closes the current segment, syncing it to the storage device.
+     *
+     * A new segment is started if more records are logged.
+     *
+     * @throws IOException if the segment cannot be closed.
+     */
+    public void close() throws IOException
+    {
+        synchronized (this.appendLock) {
+            Segment closing = this.segment;
+            this.segment = null;
+
+            if (null == closing) {
+                return;
+            }
+
+            closing.close();
+            if (closing.size() <= this.header.size()) {
+                // Nothing was written after the header.
+                closing.getFile().delete();
+            }
+
+            if (null != this.listener) {
+                this.listener.onSegmentClosed(closing.getFile());
+            }
+        }
+    }
+
+    /**
+     * Encodes a record into the current segment, starting a new segment if
+     * needed.
+     *
+     * Must be invoked while holding the append lock.
+     *
+     * @return Total bytes written by the handler, up to the end of the record.
+     */
+    private long append(Record record) throws IOException
+    {
+        this.sink.clear();
+        if (null != this.segment && false == this.isExpired(this.segment)) {
+            this.encoder.encode(record, this.sink);
+            if (this.sink.size() <= this.segment.remaining()) {
+                this.segment.append(this.sink);
+                this.written += this.sink.size();
+
+                return this.written;
+            }
+        }
+
+        this.roll(this.segmentSize);
+        this.sink.clear();
+        this.encoder.encode(record, this.sink);
+
+        if (this.sink.size() > this.segment.remaining()) {
+            // Larger than a whole segment; give it a segment of its own size.
+            this.roll(this.header.size() + this.sink.size());
+            this.sink.clear();
+            this.encoder.encode(record, this.sink);
+        }
+
+        this.segment.append(this.sink);
+        this.written += this.sink.size();
+
+        return this.written;
+    }
+
+    private boolean isExpired(Segment segment)
+    {
+        return System.currentTimeMillis() - segment.getCreated() >= this.maxSegmentAgeMillis;
+    }
+
+    /**
+     * Closes the current segment and opens the next one.
+     *
+     * Must be invoked while holding the append lock. The record that started
+     * the roll must be encoded again afterwards, since the encoder's state is
+     * reset for the new file.
+     */
+    private void roll(int capacity) throws IOException
+    {
+        this.close();
+
+        if (false == this.directory.isDirectory() && false == this.directory.mkdirs()) {
+            throw new IOException("Unable to create log directory " + this.directory);
+        }
+
+        File file = new File(
+            this.directory,
+            String.format("%s-%013d-%04d%s", this.name, System.currentTimeMillis(), this.sequence++ % 10000, EXTENSION)
+        );
+
+        this.header.clear();
+        this.encoder.start(this.header);
+        this.segment = new Segment(file, Math.max(capacity, this.header.size()));
+        this.segment.append(this.header);
+        this.written += this.header.size();
+
+        if (null != this.listener) {
+            this.listener.onSegmentOpened(file);
+        }
+    }
+
+    /**
+     * Waits until the records written up to an offset are synced to the
+     * storage device, syncing the file if no other thread is.
+     *
+     * @param target Total bytes written by the handler that must be synced.
+     */
+    private void commit(long target)
+    {
+        while (true) {
+            synchronized (this.commitLock) {
+                if (this.committed >= target) {
+                    return;
+                }
+                if (this.committing) {
+                    try {
+                        this.commitLock.wait();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    continue;
+                }
+
+                this.committing = true;
+            }
+
+            long end;
+            Segment syncing;
+            synchronized (this.appendLock) {
+                end = this.written;
+                syncing = this.segment;
+            }
+
+            try {
+                // Earlier segments were synced when they were closed.
+                if (null != syncing) {
+                    syncing.force();
+                }
+            } finally {
+                synchronized (this.commitLock) {
+                    this.committed = Math.max(this.committed, end);
+                    this.committing = false;
+                    this.commitLock.notifyAll();
+                }
+            }
+        }
+    }
+}
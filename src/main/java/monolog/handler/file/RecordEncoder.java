@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import monolog.Record;
+
+/**
+ * Converts records into the bytes written to a log file.
+ *
+ * Encoders are only used by one thread at a time, and may keep state between
+ * records for the file they are writing, such as a dictionary of strings
+ * already written. That state is reset whenever a new file is started.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public interface RecordEncoder
+{
+    /**
+     * Starts a new file.
+     *
+     * @param sink Destination for any header at the start of the file.
+     */
+    void start(ByteSink sink);
+
+    /**
+     * @param record The record to encode.
+     * @param sink Destination for the encoded record.
+     */
+    void encode(Record record, ByteSink sink);
+}
@@ -0,0 +1,491 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compresses the segments a file handler has finished with, and deletes the
+ * oldest of them to keep within a storage budget.
+ *
+ * The work is done on a background thread of the lowest priority; logging
+ * threads only queue the name of each file as it is started or finished.
+ * Finished segments are gzipped, then the oldest are deleted while the kept
+ * segments add up to more than the byte budget, or once they have been
+ * finished for longer than the maximum age. The segment still being written
+ * is not counted or deleted.
+ *
+ * The kept segments are listed in a small index file beside them, so that
+ * the directory does not need to be listed when the application starts. It
+ * is only scanned if the index is missing or cannot be read. Segments that
+ * were still open when the application last stopped are compressed at the
+ * next start.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class RetentionManager implements SegmentListener
+{
+    final private static String INDEX_EXTENSION = ".index";
+    final private static String INDEX_HEADER = "monolog-retention 1";
+    final private static int TIMESTAMP_LENGTH = 13;
+    final private static Event STOP = new Event(null, true);
+
+    final private File directory;
+    final private String name;
+    final private long maxTotalBytes;
+    final private long maxAgeMillis;
+    final private SegmentCompressor compressor;
+    final private File index;
+    final private long started;
+    final private BlockingQueue<Event> events = new LinkedBlockingQueue<Event>();
+    final private Thread worker;
+
+    /**
+     * Segments being kept, oldest first. Only used by the worker thread.
+     */
+    final private List<Entry> entries = new ArrayList<Entry>();
+    private boolean changed;
+    private volatile long storedBytes;
+
+    /**
+     * @param directory Directory that the file handler writes segments to.
+     * @param name Prefix of the segment file names, as given to the handler.
+     * @param maxTotalBytes Most bytes of finished segments to keep.
+     * @param maxAgeMillis Time to keep a segment after it is finished.
+     */
+    public RetentionManager(File directory, String name, long maxTotalBytes, long maxAgeMillis)
+    {
+        this(directory, name, maxTotalBytes, maxAgeMillis, new SegmentCompressor());
+    }
+
+    /**
+     * @param directory Directory that the file handler writes segments to.
+     * @param name Prefix of the segment file names, as given to the handler.
+     * @param maxTotalBytes Most bytes of finished segments to keep.
+     * @param maxAgeMillis Time to keep a segment after it is finished.
+     * @param compressor Writes the compressed copies of finished segments.
+     */
+    public RetentionManager(
+        File directory,
+        String name,
+        long maxTotalBytes,
+        long maxAgeMillis,
+        SegmentCompressor compressor
+    ) {
+        if (maxTotalBytes < 1 || maxAgeMillis < 1) {
+            throw new IllegalArgumentException("Byte budget and age must be at least one.");
+        }
+
+        this.directory = directory;
+        this.name = name;
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.compressor = compressor;
+        this.index = new File(directory, name + INDEX_EXTENSION);
+        this.started = System.currentTimeMillis();
+
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                RetentionManager.this.run();
+            }
+        }, "monolog-retention-" + name);
+        this.worker.setDaemon(true);
+        this.worker.setPriority(Thread.MIN_PRIORITY);
+        this.worker.start();
+    }
+
+    @Override
+    public void onSegmentOpened(File segment)
+    {
+        this.events.offer(new Event(segment, false));
+    }
+
+    @Override
+    public void onSegmentClosed(File segment)
+    {
+        this.events.offer(new Event(segment, true));
+    }
+
+    /**
+     * @return Bytes taken by the finished segments being kept, as of the
+     *         last segment the manager worked on.
+     */
+    public long getStoredBytes()
+    {
+        return this.storedBytes;
+    }
+
+    /**
+     * Stops the background thread once it has finished with the segments
+     * already queued.
+     *
+     * @param timeoutMillis Longest time to wait for the thread to finish.
+     * @return Whether the thread finished in time.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean shutdown(long timeoutMillis) throws InterruptedException
+    {
+        this.events.offer(STOP);
+        this.worker.join(timeoutMillis);
+
+        return false == this.worker.isAlive();
+    }
+
+    private void run()
+    {
+        this.load();
+        this.enforce(System.currentTimeMillis());
+        this.save();
+
+        try {
+            while (true) {
+                Event event = this.next();
+                if (STOP == event) {
+                    return;
+                }
+                if (null != event) {
+                    this.apply(event);
+                }
+
+                this.enforce(System.currentTimeMillis());
+                this.save();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for the next event, or until the oldest segment expires.
+     *
+     * @return The next event, or null if the oldest segment has expired.
+     */
+    private Event next() throws InterruptedException
+    {
+        for (Entry entry : this.entries) {
+            if (false == entry.isOpen()) {
+                long wait = entry.closed + this.maxAgeMillis - System.currentTimeMillis();
+
+                return this.events.poll(Math.max(wait, 0), TimeUnit.MILLISECONDS);
+            }
+        }
+
+        return this.events.take();
+    }
+
+    private void apply(Event event)
+    {
+        String fileName = event.file.getName();
+        Entry entry = this.find(fileName);
+
+        if (false == event.closed) {
+            if (null == entry) {
+                this.entries.add(new Entry(fileName, Entry.OPEN, 0));
+                this.changed = true;
+            }
+            return;
+        }
+
+        if (false == event.file.exists()) {
+            // Deleted by the handler, since nothing was written to it.
+            if (null != entry) {
+                this.entries.remove(entry);
+                this.changed = true;
+            }
+            return;
+        }
+
+        if (null == entry) {
+            entry = new Entry(fileName, Entry.OPEN, 0);
+            this.entries.add(entry);
+        }
+
+        this.finish(entry, System.currentTimeMillis());
+    }
+
+    private Entry find(String fileName)
+    {
+        for (int index = this.entries.size() - 1; index >= 0; index--) {
+            if (this.entries.get(index).file.equals(fileName)) {
+                return this.entries.get(index);
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Compresses a segment that is no longer written to.
+     *
+     * If it cannot be compressed, the segment is kept as it is and counted at
+     * its full size.
+     */
+    private void finish(Entry entry, long closed)
+    {
+        File source = new File(this.directory, entry.file);
+        File target = new File(this.directory, entry.file + SegmentCompressor.EXTENSION);
+
+        entry.closed = closed;
+        entry.size = source.length();
+        this.changed = true;
+
+        if (entry.file.endsWith(SegmentCompressor.EXTENSION)) {
+            return;
+        }
+
+        try {
+            long size = this.compressor.compress(source, target);
+            if (source.delete()) {
+                entry.file = target.getName();
+                entry.size = size;
+            } else {
+                target.delete();
+            }
+        } catch (IOException exception) {
+            target.delete();
+        }
+    }
+
+    /**
+     * Deletes the oldest finished segments while they are over the byte
+     * budget or past the maximum age.
+     */
+    private void enforce(long now)
+    {
+        long total = 0;
+        for (Entry entry : this.entries) {
+            if (false == entry.isOpen()) {
+                total += entry.size;
+            }
+        }
+
+        for (int index = 0; index < this.entries.size(); ) {
+            Entry entry = this.entries.get(index);
+            if (entry.isOpen()) {
+                index++;
+                continue;
+            }
+            if (total <= this.maxTotalBytes && now - entry.closed < this.maxAgeMillis) {
+                break;
+            }
+
+            new File(this.directory, entry.file).delete();
+            total -= entry.size;
+            this.entries.remove(index);
+            this.changed = true;
+        }
+
+        this.storedBytes = total;
+    }
+
+    /**
+     * Reads the index, or scans the directory if there is no usable index,
+     * then finishes any segments left open by the last run.
+     */
+    private void load()
+    {
+        if (false == this.readIndex()) {
+            this.entries.clear();
+            this.scan();
+            this.changed = true;
+        }
+
+        for (Entry entry : this.entries.toArray(new Entry[this.entries.size()])) {
+            if (entry.isOpen() || false == entry.file.endsWith(SegmentCompressor.EXTENSION)) {
+                File file = new File(this.directory, entry.file);
+                if (file.exists()) {
+                    this.finish(entry, entry.isOpen() ? file.lastModified() : entry.closed);
+                } else {
+                    this.entries.remove(entry);
+                    this.changed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Whether the index was read.
+     */
+    private boolean readIndex()
+    {
+        if (false == this.index.isFile()) {
+            return false;
+        }
+
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(this.index), "UTF-8"));
+            try {
+                if (false == INDEX_HEADER.equals(reader.readLine())) {
+                    return false;
+                }
+
+                for (String line = reader.readLine(); null != line; line = reader.readLine()) {
+                    String[] fields = line.split("\t");
+                    if (3 != fields.length) {
+                        return false;
+                    }
+                    this.entries.add(new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])));
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException exception) {
+            return false;
+        } catch (NumberFormatException exception) {
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Finds the segments in the directory, for when there is no index.
+     *
+     * Uncompressed segments started since this manager was created belong to
+     * the running handler, and are left for it to report.
+     */
+    private void scan()
+    {
+        File[] files = this.directory.listFiles();
+        if (null == files) {
+            return;
+        }
+
+        Arrays.sort(files);
+        for (File file : files) {
+            String fileName = file.getName();
+            long created = this.parseCreated(fileName);
+            if (created < 0 || fileName.endsWith(".tmp")) {
+                continue;
+            }
+
+            if (fileName.endsWith(SegmentCompressor.EXTENSION)) {
+                this.entries.add(new Entry(fileName, file.lastModified(), file.length()));
+            } else if (created < this.started) {
+                this.entries.add(new Entry(fileName, Entry.OPEN, 0));
+            }
+        }
+    }
+
+    /**
+     * @return The time a segment was started according to its file name, or
+     *         -1 if the file is not one of this handler's segments.
+     */
+    private long parseCreated(String fileName)
+    {
+        int start = this.name.length() + 1;
+        if (false == fileName.startsWith(this.name + "-") || fileName.length() < start + TIMESTAMP_LENGTH) {
+            return -1;
+        }
+
+        for (int index = start; index < start + TIMESTAMP_LENGTH; index++) {
+            if (false == Character.isDigit(fileName.charAt(index))) {
+                return -1;
+            }
+        }
+
+        return Long.parseLong(fileName.substring(start, start + TIMESTAMP_LENGTH));
+    }
+
+    /**
+     * Writes the index if it has changed, replacing the previous one once
+     * the new one is complete.
+     */
+    private void save()
+    {
+        if (false == this.changed) {
+            return;
+        }
+
+        File partial = new File(this.index.getPath() + ".tmp");
+        try {
+            if (false == this.directory.isDirectory() && false == this.directory.mkdirs()) {
+                return;
+            }
+
+            Writer writer = new OutputStreamWriter(new FileOutputStream(partial), "UTF-8");
+            try {
+                StringBuilder builder = new StringBuilder(INDEX_HEADER).append('\n');
+                for (Entry entry : this.entries) {
+                    builder.append(entry.file).append('\t')
+                        .append(entry.closed).append('\t')
+                        .append(entry.size).append('\n');
+                }
+                writer.write(builder.toString());
+            } finally {
+                writer.close();
+            }
+
+            if (false == partial.renameTo(this.index)) {
+                // Some platforms will not rename over an existing file.
+                this.index.delete();
+                if (false == partial.renameTo(this.index)) {
+                    return;
+                }
+            }
+            this.changed = false;
+        } catch (IOException exception) {
+            partial.delete();
+        }
+    }
+
+    /**
+     * A segment file being kept.
+     */
+    private static class Entry
+    {
+        /**
+         * Finish time of a segment that is still being written.
+         */
+        final static long OPEN = -1;
+
+        private String file;
+        private long closed;
+        private long size;
+
+        Entry(String file, long closed, long size)
+        {
+            this.file = file;
+            this.closed = closed;
+            this.size = size;
+        }
+
+        boolean isOpen()
+        {
+            return OPEN == this.closed;
+        }
+    }
+
+    /**
+     * A segment started or finished by the handler.
+     */
+    private static class Event
+    {
+        final private File file;
+        final private boolean closed;
+
+        Event(File file, boolean closed)
+        {
+            this.file = file;
+            this.closed = closed;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A log file that records are appended to through a memory mapping.
+ *
+ * The file is mapped at its full capacity when it is opened, and truncated to
+ * the bytes actually written when it is closed.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final class Segment
+{
+    final private File file;
+    final private RandomAccessFile access;
+    final private MappedByteBuffer buffer;
+    final private long created;
+
+    /**
+     * @param file The file to create and write to.
+     * @param capacity Number of bytes to map for writing.
+     * @throws IOException if the file cannot be created or mapped.
+     */
+    Segment(File file, int capacity) throws IOException
+    {
+        this.file = file;
+        this.access = new RandomAccessFile(file, "rw");
+
+        try {
+            this.buffer = this.access.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException exception) {
+            this.access.close();
+            throw exception;
+        }
+
+        this.created = System.currentTimeMillis();
+    }
+
+    /**
+     * @return The file being written to.
+     */
+    File getFile()
+    {
+        return this.file;
+    }
+
+    /**
+     * @return The time the segment was opened, in milliseconds since the epoch.
+     */
+    long getCreated()
+    {
+        return this.created;
+    }
+
+    /**
+     * @return Number of bytes appended.
+     */
+    int size()
+    {
+        return this.buffer.position();
+    }
+
+    /**
+     * @return Number of bytes that can still be appended.
+     */
+    int remaining()
+    {
+        return this.buffer.remaining();
+    }
+
+    /**
+     * @param sink Bytes to add to the end of the segment. Must fit within the
+     *             remaining space.
+     */
+    void append(ByteSink sink)
+    {
+        sink.copyTo(this.buffer);
+    }
+
+    /**
+     * Writes everything appended so far to the storage device.
+     */
+    void force()
+    {
+        this.buffer.force();
+    }
+
+    /**
+     * Writes everything appended to the storage device, and trims the unused
+     * space from the end of the file.
+     *
+     * @throws IOException if the file cannot be trimmed or closed.
+     */
+    void close() throws IOException
+    {
+        try {
+            this.buffer.force();
+            this.access.getChannel().truncate(this.buffer.position());
+        } finally {
+            this.access.close();
+        }
+    }
+}
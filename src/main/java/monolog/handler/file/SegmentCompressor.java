@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes gzip copies of closed segment files.
+ *
+ * Compressors keep a buffer between files, and are only used by one thread
+ * at a time.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class SegmentCompressor
+{
+    final public static String EXTENSION = ".gz";
+    final private static int BUFFER_SIZE = 64 * 1024;
+
+    final private int level;
+    final private byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * Compresses at the fastest deflate level, which takes about a third of
+     * the CPU time of the default level for files only about a fifth larger.
+     */
+    public SegmentCompressor()
+    {
+        this(Deflater.BEST_SPEED);
+    }
+
+    /**
+     * @param level Deflate level, from 1 for the fastest to 9 for the smallest.
+     */
+    public SegmentCompressor(int level)
+    {
+        if ((level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) && Deflater.DEFAULT_COMPRESSION != level) {
+            throw new IllegalArgumentException("Compression level must be from 1 to 9.");
+        }
+
+        this.level = level;
+    }
+
+    /**
+     * Writes a compressed copy of a file.
+     *
+     * The copy is written beside the target and renamed once it is complete,
+     * so the target is never left part way written. The source is not
+     * changed.
+     *
+     * @param source The file to compress.
+     * @param target Where to write the compressed copy.
+     * @return Size of the compressed copy in bytes.
+     * @throws IOException if the source cannot be read or the copy written.
+     */
+    public long compress(File source, File target) throws IOException
+    {
+        File partial = new File(target.getPath() + ".tmp");
+        InputStream input = new FileInputStream(source);
+        boolean complete = false;
+
+        try {
+            OutputStream output = this.open(partial);
+            try {
+                for (int read = input.read(this.buffer); read >= 0; read = input.read(this.buffer)) {
+                    output.write(this.buffer, 0, read);
+                }
+            } finally {
+                output.close();
+            }
+
+            if (false == partial.renameTo(target)) {
+                throw new IOException("Unable to rename " + partial + " to " + target);
+            }
+            complete = true;
+        } finally {
+            input.close();
+            if (false == complete) {
+                partial.delete();
+            }
+        }
+
+        return target.length();
+    }
+
+    private OutputStream open(File file) throws IOException
+    {
+        final int level = this.level;
+
+        return new GZIPOutputStream(new FileOutputStream(file), BUFFER_SIZE) {
+            {
+                this.def.setLevel(level);
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import java.io.File;
+
+/**
+ * Told when a file handler starts and finishes each segment file.
+ *
+ * Listeners are invoked while the handler holds its append lock, so they
+ * should hand the file off to another thread rather than work on it.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public interface SegmentListener
+{
+    /**
+     * @param segment The file that records are now being written to.
+     */
+    void onSegmentOpened(File segment);
+
+    /**
+     * @param segment The file that is no longer written to. The file has
+     *                already been deleted if nothing was written to it.
+     */
+    void onSegmentClosed(File segment);
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import monolog.Record;
+import monolog.ThrowableRenderer;
+
+/**
+ * Writes records as lines of UTF-8 text.
+ *
+ * Each line starts with the UTC time the record was logged and its level,
+ * followed by the record's tag, if any, and the message. Causes are written
+ * after the line as a stack trace, from the shared cache of rendered traces.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class TextRecordEncoder implements RecordEncoder
+{
+    @Override
+    public void start(ByteSink sink)
+    {
+    }
+
+    @Override
+    public void encode(Record record, ByteSink sink)
+    {
+        sink.writeTimestamp(record.getTimestamp());
+        sink.writeByte(' ');
+        sink.writeUtf8(record.getLevel().name());
+        sink.writeByte(' ');
+        if (null != record.getTag()) {
+            sink.writeUtf8(record.getTag());
+            sink.writeUtf8(": ");
+        }
+
+        String message = record.getMessageString();
+        sink.writeUtf8(null == message ? "null" : message);
+        sink.writeByte('\n');
+
+        if (null != record.getCause()) {
+            sink.writeUtf8(ThrowableRenderer.getShared().render(record.getCause()));
+        }
+    }
+}
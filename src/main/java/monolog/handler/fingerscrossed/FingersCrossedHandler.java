@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.fingerscrossed;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import monolog.handler.LeveledHandler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds back records until something goes wrong.
+ *
+ * Records below the trigger level are kept in a small buffer for each thread
+ * instead of being sent on, overwriting the oldest once the buffer is full.
+ * When a record at or above the trigger level is logged, the thread's buffer
+ * is sent to the wrapped handler ahead of it, so that the error arrives with
+ * the records that led up to it. Every record is then sent straight through
+ * for a while after, before buffering starts again.
+ *
+ * Buffered records are reported as `HANDLED`.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class FingersCrossedHandler implements LeveledHandler
+{
+    final private static int DEFAULT_BUFFER_SIZE = 64;
+    final private static long DEFAULT_PASS_THROUGH = TimeUnit.SECONDS.toMillis(30);
+
+    final private Handler handler;
+    final private LogLevel triggerLevel;
+    final private long passThroughNanos;
+    final private ThreadLocal<Buffer> buffers;
+
+    /**
+     * Time that records stop passing straight through, in the past while
+     * records are being buffered.
+     */
+    private volatile long passThroughUntil;
+
+    /**
+     * Buffers the last 64 records on each thread until an error, then passes
+     * records through for 30 seconds.
+     *
+     * @param handler The handler to send records to.
+     */
+    public FingersCrossedHandler(Handler handler)
+    {
+        this(handler, LogLevel.ERROR, DEFAULT_BUFFER_SIZE, DEFAULT_PASS_THROUGH);
+    }
+
+    /**
+     * @param handler The handler to send records to.
+     * @param triggerLevel Lowest level of records that send the buffer on.
+     * @param bufferSize Number of records to keep on each thread.
+     * @param passThroughMillis Time to send records straight through after
+     *                          the buffer is sent.
+     */
+    public FingersCrossedHandler(Handler handler, LogLevel triggerLevel, final int bufferSize, long passThroughMillis)
+    {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer must hold at least one record.");
+        }
+
+        this.handler = handler;
+        this.triggerLevel = triggerLevel;
+        this.passThroughNanos = TimeUnit.MILLISECONDS.toNanos(passThroughMillis);
+        this.passThroughUntil = System.nanoTime();
+        this.buffers = new ThreadLocal<Buffer>() {
+            @Override
+            protected Buffer initialValue()
+            {
+                return new Buffer(bufferSize);
+            }
+        };
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level)
+    {
+        if (this.handler instanceof LeveledHandler) {
+            return ((LeveledHandler) this.handler).isEnabled(level);
+        }
+
+        return true;
+    }
+
+    @Override
+    public HandlerResult handle(Record record)
+    {
+        if (record.getLevel().compareTo(this.triggerLevel) >= 0) {
+            this.flush();
+            this.passThroughUntil = System.nanoTime() + this.passThroughNanos;
+
+            return this.handler.handle(record);
+        }
+
+        if (System.nanoTime() - this.passThroughUntil < 0) {
+            this.flush();
+            return this.handler.handle(record);
+        }
+
+        this.buffers.get().add(record.copy());
+
+        return HandlerResult.HANDLED;
+    }
+
+    /**
+     * Sends the records buffered on the current thread to the wrapped handler.
+     */
+    public void flush()
+    {
+        Buffer buffer = this.buffers.get();
+
+        for (Record record = buffer.poll(); null != record; record = buffer.poll()) {
+            this.handler.handle(record);
+        }
+    }
+
+    /**
+     * Discards the records buffered on the current thread.
+     */
+    public void clear()
+    {
+        Buffer buffer = this.buffers.get();
+
+        while (null != buffer.poll()) {
+            // Discarding.
+        }
+    }
+
+    /**
+     * Ring of the most recent records logged on a thread.
+     */
+    private static class Buffer
+    {
+        final private Record[] records;
+        private int start = 0;
+        private int count = 0;
+
+        Buffer(int size)
+        {
+            this.records = new Record[size];
+        }
+
+        /**
+         * Adds a record, overwriting the oldest if the buffer is full.
+         */
+        void add(Record record)
+        {
+            int end = (this.start + this.count) % this.records.length;
+            this.records[end] = record;
+
+            if (this.count == this.records.length) {
+                this.start = (this.start + 1) % this.records.length;
+            } else {
+                this.count++;
+            }
+        }
+
+        /**
+         * @return The oldest record, removed from the buffer, or null if empty.
+         */
+        Record poll()
+        {
+            if (0 == this.count) {
+                return null;
+            }
+
+            Record record = this.records[this.start];
+            this.records[this.start] = null;
+            this.start = (this.start + 1) % this.records.length;
+            this.count--;
+
+            return record;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.parallel;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import monolog.handler.LeveledHandler;
+import monolog.handler.SwitchedHandler;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends each record to a group of independent handlers at the same time.
+ *
+ * The handlers in the group are invoked concurrently on an executor, with
+ * one of them running on the logging thread, and the group waits for all of
+ * them before returning. A record therefore costs about as long as the
+ * slowest handler in the group rather than the sum of all of them, and the
+ * record is not reused until every handler is done with it.
+ *
+ * Handlers in a group must not depend on each other's order. Place groups in
+ * a logger's chain to keep an order between them: the group reports
+ * `FINISHED` if any of its handlers finished, `HANDLED` if any handled the
+ * record, and otherwise `PASSED`, so a later group only runs once the
+ * earlier one is done and has not finished the chain.
+ *
+ * If a handler throws, the exception is re-thrown on the logging thread
+ * after the rest of the group has completed.
+ *
+ * The levels of the handlers in the group are resolved ahead of time, and
+ * resolved again once the levels of any switched handler change.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class ParallelHandler implements LeveledHandler
+{
+    final private Handler[] handlers;
+    final private Executor executor;
+    private volatile Routes routes;
+
+    /**
+     * Runs the group on a pool of daemon threads owned by this handler.
+     *
+     * @param handlers Independent handlers to invoke together.
+     */
+    public ParallelHandler(Handler[] handlers)
+    {
+        this(handlers, createExecutor());
+    }
+
+    /**
+     * @param handlers Independent handlers to invoke together.
+     * @param executor Runs all but one of the handlers for each record. Where
+     *                 the platform supports them, an executor that starts a
+     *                 virtual thread per task avoids keeping a pool.
+     */
+    public ParallelHandler(Handler[] handlers, Executor executor)
+    {
+        if (0 == handlers.length) {
+            throw new IllegalArgumentException("You are required to add at least one handler.");
+        }
+
+        this.handlers = handlers.clone();
+        this.executor = executor;
+        this.routes = new Routes(this.handlers);
+    }
+
+    private static ExecutorService createExecutor()
+    {
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+            final private AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable)
+            {
+                Thread thread = new Thread(runnable, "monolog-parallel-" + this.count.incrementAndGet());
+                thread.setDaemon(true);
+
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * @return The handlers enabled for each level, resolved again first if
+     *         the levels of a switched handler have changed.
+     */
+    private Handler[][] getRoutes()
+    {
+        Routes routes = this.routes;
+        if (routes.levelChanges != SwitchedHandler.getLevelChanges()) {
+            routes = new Routes(this.handlers);
+            this.routes = routes;
+        }
+
+        return routes.table;
+    }
+
+    /**
+     * Builds a table of the handlers in the group that are enabled for each
+     * log level.
+     *
+     * @param handlers The handlers to check the levels of.
+     * @return Enabled handlers, indexed by the ordinal of the log level.
+     */
+    private static Handler[][] resolveRoutes(Handler[] handlers)
+    {
+        LogLevel[] levels = LogLevel.values();
+        Handler[][] routes = new Handler[levels.length][];
+
+        for (LogLevel level : levels) {
+            List<Handler> route = new ArrayList<Handler>(handlers.length);
+            for (Handler handler : handlers) {
+                if (false == handler instanceof LeveledHandler || ((LeveledHandler) handler).isEnabled(level)) {
+                    route.add(handler);
+                }
+            }
+            routes[level.ordinal()] = route.toArray(new Handler[route.size()]);
+        }
+
+        return routes;
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level)
+    {
+        return 0 != this.getRoutes()[level.ordinal()].length;
+    }
+
+    @Override
+    public HandlerResult handle(Record record)
+    {
+        Handler[] route = this.getRoutes()[record.getLevel().ordinal()];
+
+        switch (route.length) {
+            case 0:
+                return HandlerResult.PASSED;
+            case 1:
+                return route[0].handle(record);
+        }
+
+        Dispatch dispatch = new Dispatch(record, route.length - 1);
+        for (int i = 1; i < route.length; i++) {
+            Task task = new Task(dispatch, route[i]);
+            try {
+                this.executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        }
+
+        HandlerResult result;
+        try {
+            result = route[0].handle(record);
+        } catch (RuntimeException e) {
+            dispatch.await();
+            throw e;
+        }
+
+        dispatch.await();
+
+        if (null != dispatch.failure) {
+            throw dispatch.failure;
+        }
+
+        return combine(result, dispatch.result);
+    }
+
+    /**
+     * @return The result of a group from the results of two of its parts.
+     */
+    private static HandlerResult combine(HandlerResult first, HandlerResult second)
+    {
+        return first.compareTo(second) >= 0 ? first : second;
+    }
+
+    /**
+     * The handlers enabled for each level, and the count of level changes
+     * they were resolved at.
+     */
+    private static class Routes
+    {
+        final private int levelChanges;
+        final private Handler[][] table;
+
+        Routes(Handler[] handlers)
+        {
+            this.levelChanges = SwitchedHandler.getLevelChanges();
+            this.table = resolveRoutes(handlers);
+        }
+    }
+
+    /**
+     * Collects the results of the handlers run on the executor for a record.
+     */
+    private static class Dispatch
+    {
+        final private Record record;
+        final private CountDownLatch remaining;
+        private HandlerResult result = HandlerResult.PASSED;
+        private RuntimeException failure;
+
+        Dispatch(Record record, int count)
+        {
+            this.record = record;
+            this.remaining = new CountDownLatch(count);
+        }
+
+        synchronized void complete(HandlerResult result)
+        {
+            this.result = combine(this.result, result);
+        }
+
+        synchronized void fail(RuntimeException failure)
+        {
+            if (null == this.failure) {
+                this.failure = failure;
+            }
+        }
+
+        /**
+         * Waits for every handler to complete, even if the logging thread is
+         * interrupted, since the record may be reused once this returns.
+         * Results recorded by the handlers are visible once the wait is over.
+         */
+        void await()
+        {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    this.remaining.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Invokes one handler of the group for a record.
+     */
+    private static class Task implements Runnable
+    {
+        final private Dispatch dispatch;
+        final private Handler handler;
+
+        Task(Dispatch dispatch, Handler handler)
+        {
+            this.dispatch = dispatch;
+            this.handler = handler;
+        }
+
+        @Override
+        public void run()
+        {
+            try {
+                this.dispatch.complete(this.handler.handle(this.dispatch.record));
+            } catch (RuntimeException e) {
+                this.dispatch.fail(e);
+            } finally {
+                this.dispatch.remaining.countDown();
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.ratelimit;
+
+/**
+ * The rate that records are allowed through a rate limited handler.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class RateLimit
+{
+    final private double recordsPerSecond;
+    final private int burst;
+
+    /**
+     * @param recordsPerSecond Sustained number of records allowed each second.
+     * @param burst Number of records that can be let through at once after a
+     *              quiet period.
+     */
+    public RateLimit(double recordsPerSecond, int burst)
+    {
+        if (recordsPerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be more than zero records per second.");
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("Burst must allow at least one record.");
+        }
+
+        this.recordsPerSecond = recordsPerSecond;
+        this.burst = burst;
+    }
+
+    /**
+     * @return Sustained number of records allowed each second.
+     */
+    final public double getRecordsPerSecond()
+    {
+        return this.recordsPerSecond;
+    }
+
+    /**
+     * @return Number of records that can be let through at once.
+     */
+    final public int getBurst()
+    {
+        return this.burst;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RateLimit{" +
+            "recordsPerSecond=" + recordsPerSecond +
+            ", burst=" + burst +
+            '}';
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.ratelimit;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import monolog.handler.LeveledHandler;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Limits the rate of records sent to another handler.
+ *
+ * Each log level has its own token bucket, and optionally one per message, so
+ * that a flood of one kind of record does not crowd out the rest. Records can
+ * also be sampled, so that only a fraction of them are considered at all.
+ * Records that are dropped are reported with a configurable result, so that
+ * the logger can either continue or stop its chain.
+ *
+ * Buckets are kept as the time the next record is due, which is updated with
+ * a single compare-and-set, so checking a record neither locks nor allocates.
+ * Messages are grouped into a fixed number of buckets by their hash code, so
+ * messages that share a bucket share a limit. String messages and templates
+ * are grouped by their text, and other messages by their class, so that lazy
+ * messages are never built to be grouped.
+ *
+ * The number of records dropped is reported to the wrapped handler as a
+ * summary record for each level, at most once per summary interval. A
+ * background thread sends the summaries while there are drops to report, so
+ * the counts of the last interval of a flood are sent even once it stops;
+ * call `shutdown` to stop it and send the counts still waiting.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+@SuppressWarnings("UnusedDeclaration")
+public class RateLimitHandler implements LeveledHandler
+{
+    final private static int MESSAGE_BUCKETS = 64;
+    final private static long DEFAULT_SUMMARY_INTERVAL = TimeUnit.SECONDS.toMillis(10);
+
+    final private static ThreadLocal<Random> RANDOM = new ThreadLocal<Random>() {
+        @Override
+        protected Random initialValue()
+        {
+            return new Random();
+        }
+    };
+
+    final private Handler handler;
+    final private HandlerResult droppedResult;
+    final private double sampleRate;
+    final private int buckets;
+    final private long[] intervals;
+    final private long[] tolerances;
+    final private AtomicLongArray due;
+    final private AtomicLongArray dropped;
+    final private long summaryIntervalNanos;
+    final private AtomicLong nextSummary;
+    final private Thread summarizer;
+    private volatile boolean running = true;
+    private volatile boolean idle = false;
+
+    /**
+     * Limits every level to the same rate, passing on dropped records.
+     *
+     * @param handler The handler to send records to.
+     * @param limit Rate that records of each level are allowed through.
+     */
+    public RateLimitHandler(Handler handler, RateLimit limit)
+    {
+        this(handler, sameForEveryLevel(limit), false, 1, HandlerResult.PASSED, DEFAULT_SUMMARY_INTERVAL);
+    }
+
+    /**
+     * @param handler The handler to send records to.
+     * @param limits Rate that records of each level are allowed through.
+     *               Levels without a limit are not limited.
+     * @param limitByMessage Whether to limit each message separately, rather
+     *                       than all records of a level together.
+     * @param sampleRate Fraction of records to consider, from 0 to 1.
+     * @param droppedResult Result to report for dropped records.
+     * @param summaryIntervalMillis Shortest time between reports of the
+     *                              number of records dropped.
+     */
+    public RateLimitHandler(
+        Handler handler,
+        Map<LogLevel, RateLimit> limits,
+        boolean limitByMessage,
+        double sampleRate,
+        HandlerResult droppedResult,
+        long summaryIntervalMillis
+    ) {
+        if (sampleRate < 0 || sampleRate > 1) {
+            throw new IllegalArgumentException("Sample rate must be between 0 and 1.");
+        }
+
+        LogLevel[] levels = LogLevel.values();
+        long now = System.nanoTime();
+
+        this.handler = handler;
+        this.droppedResult = droppedResult;
+        this.sampleRate = sampleRate;
+        this.buckets = limitByMessage ? MESSAGE_BUCKETS : 1;
+        this.intervals = new long[levels.length];
+        this.tolerances = new long[levels.length];
+        this.due = new AtomicLongArray(levels.length * this.buckets);
+        this.dropped = new AtomicLongArray(levels.length);
+        this.summaryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(summaryIntervalMillis);
+        this.nextSummary = new AtomicLong(now + this.summaryIntervalNanos);
+
+        for (LogLevel level : levels) {
+            RateLimit limit = limits.get(level);
+            if (null == limit) {
+                continue;
+            }
+
+            long interval = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRecordsPerSecond()));
+            this.intervals[level.ordinal()] = interval;
+            this.tolerances[level.ordinal()] = interval * (limit.getBurst() - 1);
+        }
+        for (int index = 0; index < this.due.length(); index++) {
+            this.due.set(index, now);
+        }
+
+        this.summarizer = new Thread(new Summarizer(), "monolog-rate-limit");
+        this.summarizer.setDaemon(true);
+        this.summarizer.start();
+    }
+
+    private static Map<LogLevel, RateLimit> sameForEveryLevel(RateLimit limit)
+    {
+        Map<LogLevel, RateLimit> limits = new EnumMap<LogLevel, RateLimit>(LogLevel.class);
+        for (LogLevel level : LogLevel.values()) {
+            limits.put(level, limit);
+        }
+
+        return Collections.unmodifiableMap(limits);
+    }
+
+    @Override
+    public boolean isEnabled(LogLevel level)
+    {
+        if (this.handler instanceof LeveledHandler) {
+            return ((LeveledHandler) this.handler).isEnabled(level);
+        }
+
+        return true;
+    }
+
+    @Override
+    public HandlerResult handle(Record record)
+    {
+        long now = System.nanoTime();
+        int level = record.getLevel().ordinal();
+
+        if (now - this.nextSummary.get() >= 0) {
+            this.summarizeIfDue(now);
+        }
+
+        if (this.sampleRate < 1 && RANDOM.get().nextDouble() >= this.sampleRate) {
+            return this.drop(level);
+        }
+
+        if (0 != this.intervals[level] && false == this.acquire(level, this.getBucket(record), now)) {
+            return this.drop(level);
+        }
+
+        return this.handler.handle(record);
+    }
+
+    /**
+     * Sends the number of records dropped at each level since the last
+     * summary now, rather than at the next interval.
+     */
+    public void flush()
+    {
+        for (LogLevel level : LogLevel.values()) {
+            long count = this.dropped.getAndSet(level.ordinal(), 0);
+            if (0 == count) {
+                continue;
+            }
+
+            this.handler.handle(new Record(level, "Rate limit dropped {} {} records", 2, count, level, null, null));
+        }
+    }
+
+    /**
+     * Stops the background thread, then sends the number of records dropped
+     * since the last summary.
+     *
+     * @param timeout Maximum time to wait for the background thread.
+     * @param unit Unit of the timeout.
+     * @return Whether the background thread finished within the timeout.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException
+    {
+        this.running = false;
+        LockSupport.unpark(this.summarizer);
+        this.summarizer.join(Math.max(1, unit.toMillis(timeout)));
+        this.flush();
+
+        return false == this.summarizer.isAlive();
+    }
+
+    /**
+     * @return The number of records dropped since the last summary.
+     */
+    final public long getDroppedCount(LogLevel level)
+    {
+        return this.dropped.get(level.ordinal());
+    }
+
+    /**
+     * Picks the message bucket of a record, using the template of templated
+     * messages so that the arguments don't need to be formatted, and the
+     * class of messages that are not strings so that they don't need to be
+     * built.
+     */
+    private int getBucket(Record record)
+    {
+        if (1 == this.buckets) {
+            return 0;
+        }
+
+        Object message = record.getRawMessage();
+        if (null == message) {
+            return 0;
+        }
+
+        int hash = message instanceof String ? message.hashCode() : message.getClass().hashCode();
+        hash ^= hash >>> 16;
+
+        return hash & (this.buckets - 1);
+    }
+
+    /**
+     * Takes a token from a bucket, if one is available.
+     *
+     * Uses the generic cell rate algorithm: the bucket holds the time the next
+     * record is due, and a record is allowed if that time is not further ahead
+     * than the burst allows.
+     */
+    private boolean acquire(int level, int bucket, long now)
+    {
+        int index = level * this.buckets + bucket;
+        long interval = this.intervals[level];
+        long tolerance = this.tolerances[level];
+
+        while (true) {
+            long due = this.due.get(index);
+            long arrival = due - now > 0 ? due : now;
+
+            if (arrival - now > tolerance) {
+                return false;
+            }
+            if (this.due.compareAndSet(index, due, arrival + interval)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Counts a dropped record, waking the background thread if it is the
+     * first drop since the last summary.
+     */
+    private HandlerResult drop(int level)
+    {
+        if (1 == this.dropped.incrementAndGet(level) && this.idle) {
+            LockSupport.unpark(this.summarizer);
+        }
+
+        return this.droppedResult;
+    }
+
+    /**
+     * Sends a summary of the records dropped at each level, if this thread is
+     * the first to see that the summary is due.
+     *
+     * @return Time until the summary is next due, or -1 if no records have
+     *         been dropped since the last one.
+     */
+    private long summarizeIfDue(long now)
+    {
+        long next = this.nextSummary.get();
+        if (now - next >= 0 && this.nextSummary.compareAndSet(next, now + this.summaryIntervalNanos)) {
+            this.flush();
+        }
+
+        for (int level = 0; level < this.dropped.length(); level++) {
+            if (0 != this.dropped.get(level)) {
+                return Math.max(1, this.nextSummary.get() - now);
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Sends the summaries once they are due while records are being dropped,
+     * until the handler is shut down.
+     */
+    private class Summarizer implements Runnable
+    {
+        @Override
+        public void run()
+        {
+            while (running) {
+                idle = true;
+                long wait;
+                try {
+                    wait = summarizeIfDue(System.nanoTime());
+                } catch (RuntimeException exception) {
+                    wait = summaryIntervalNanos;
+                    Thread thread = Thread.currentThread();
+                    Thread.UncaughtExceptionHandler uncaught = thread.getUncaughtExceptionHandler();
+                    if (null != uncaught) {
+                        uncaught.uncaughtException(thread, exception);
+                    }
+                }
+
+                if (false == running) {
+                    return;
+                }
+                if (wait < 0) {
+                    LockSupport.park(this);
+                } else {
+                    idle = false;
+                    LockSupport.parkNanos(this, wait);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.metrics;
+
+import monolog.handler.Handler;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects metrics for each of the handlers of an instrumented logger.
+ *
+ * A single instance may be shared by several loggers, in which case the
+ * calls to a handler from all of them are counted together.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class DispatchMetrics
+{
+    final private Map<Handler, HandlerMetrics> metrics = new IdentityHashMap<Handler, HandlerMetrics>();
+    final private List<HandlerMetrics> order = new ArrayList<HandlerMetrics>();
+
+    /**
+     * Looks up the metrics for a handler, creating them on first use.
+     *
+     * This is meant to be called once per handler when a logger is built,
+     * not for each record.
+     *
+     * @param handler The handler to be measured.
+     * @return The metrics to send the handler's records through.
+     */
+    final public synchronized HandlerMetrics forHandler(Handler handler)
+    {
+        HandlerMetrics existing = this.metrics.get(handler);
+        if (null != existing) {
+            return existing;
+        }
+
+        HandlerMetrics created = new HandlerMetrics(handler);
+        this.metrics.put(handler, created);
+        this.order.add(created);
+
+        return created;
+    }
+
+    /**
+     * @return Counts and latency of each handler, in the order the handlers
+     *         were first measured.
+     */
+    final public List<HandlerStatistics> snapshot()
+    {
+        HandlerMetrics[] handlers;
+        synchronized (this) {
+            handlers = this.order.toArray(new HandlerMetrics[this.order.size()]);
+        }
+
+        List<HandlerStatistics> statistics = new ArrayList<HandlerStatistics>(handlers.length);
+        for (HandlerMetrics handler : handlers) {
+            statistics.add(handler.snapshot());
+        }
+
+        return statistics;
+    }
+}
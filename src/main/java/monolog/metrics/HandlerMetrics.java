@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.metrics;
+
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts the results and times the calls of a single handler.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class HandlerMetrics
+{
+    /** Slot after the handler results, for calls that threw an exception. */
+    final private static int FAILED = HandlerResult.values().length;
+    final private static int SLOTS = FAILED + 1;
+    final private static int STRIDE = Stripes.strideOf(SLOTS);
+
+    final private Handler handler;
+    final private AtomicLongArray results = new AtomicLongArray(Stripes.lengthOf(STRIDE));
+    final private LatencyHistogram latency = new LatencyHistogram();
+
+    HandlerMetrics(Handler handler)
+    {
+        this.handler = handler;
+    }
+
+    /**
+     * @return The handler that these metrics are for.
+     */
+    final public Handler getHandler()
+    {
+        return this.handler;
+    }
+
+    /**
+     * Counts a call to the handler.
+     *
+     * @param result What the handler returned.
+     * @param nanos Time spent in the call, in nanoseconds.
+     */
+    final public void record(HandlerResult result, long nanos)
+    {
+        this.latency.record(nanos);
+        this.results.incrementAndGet(Stripes.offsetOf(Stripes.current(), STRIDE) + result.ordinal());
+    }
+
+    /**
+     * Counts a call to the handler that threw an exception.
+     *
+     * @param nanos Time spent in the call, in nanoseconds.
+     */
+    final public void recordFailure(long nanos)
+    {
+        this.latency.record(nanos);
+        this.results.incrementAndGet(Stripes.offsetOf(Stripes.current(), STRIDE) + FAILED);
+    }
+
+    /**
+     * @return Counts and latency recorded so far.
+     */
+    final public HandlerStatistics snapshot()
+    {
+        long[] totals = new long[SLOTS];
+        for (int stripe = 0; stripe < Stripes.COUNT; stripe++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                totals[slot] += this.results.get(Stripes.offsetOf(stripe, STRIDE) + slot);
+            }
+        }
+
+        return new HandlerStatistics(
+            this.handler,
+            totals[HandlerResult.PASSED.ordinal()],
+            totals[HandlerResult.HANDLED.ordinal()],
+            totals[HandlerResult.FINISHED.ordinal()],
+            totals[FAILED],
+            this.latency.snapshot()
+        );
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.metrics;
+
+import monolog.handler.Handler;
+
+/**
+ * Calls made to a handler, split by result, at a point in time.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class HandlerStatistics
+{
+    final private Handler handler;
+    final private long passed;
+    final private long handled;
+    final private long finished;
+    final private long failed;
+    final private LatencySnapshot latency;
+
+    HandlerStatistics(
+        Handler handler,
+        long passed,
+        long handled,
+        long finished,
+        long failed,
+        LatencySnapshot latency
+    ) {
+        this.handler = handler;
+        this.passed = passed;
+        this.handled = handled;
+        this.finished = finished;
+        this.failed = failed;
+        this.latency = latency;
+    }
+
+    /**
+     * @return The handler that was measured.
+     */
+    final public Handler getHandler()
+    {
+        return this.handler;
+    }
+
+    /**
+     * @return Number of calls that returned `PASSED`.
+     */
+    final public long getPassed()
+    {
+        return this.passed;
+    }
+
+    /**
+     * @return Number of calls that returned `HANDLED`.
+     */
+    final public long getHandled()
+    {
+        return this.handled;
+    }
+
+    /**
+     * @return Number of calls that returned `FINISHED`.
+     */
+    final public long getFinished()
+    {
+        return this.finished;
+    }
+
+    /**
+     * @return Number of calls that threw an exception.
+     */
+    final public long getFailed()
+    {
+        return this.failed;
+    }
+
+    /**
+     * @return Number of calls made to the handler.
+     */
+    final public long getCalls()
+    {
+        return this.passed + this.handled + this.finished + this.failed;
+    }
+
+    /**
+     * @return Time spent in each call to the handler.
+     */
+    final public LatencySnapshot getLatency()
+    {
+        return this.latency;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "HandlerStatistics{" +
+            "handler=" + handler +
+            ", passed=" + passed +
+            ", handled=" + handled +
+            ", finished=" + finished +
+            ", failed=" + failed +
+            ", latency=" + latency +
+            '}';
+    }
+}
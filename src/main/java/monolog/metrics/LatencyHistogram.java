@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations into buckets of logarithmically increasing size.
+ *
+ * Each power of two is split into eight linear buckets, so a recorded value
+ * is known to within an eighth of its size, from a nanosecond up to about
+ * eighteen minutes. Recording a value is a single atomic increment on the
+ * current thread's stripe of the counts, so it neither locks nor allocates.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class LatencyHistogram
+{
+    final static int SUB_BUCKET_BITS = 3;
+    final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    final static int MAX_EXPONENT = 40;
+    final static int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    final private static int STRIDE = Stripes.strideOf(BUCKETS);
+
+    final private AtomicLongArray counts = new AtomicLongArray(Stripes.lengthOf(STRIDE));
+
+    /**
+     * @param nanos Duration to count, in nanoseconds.
+     */
+    public void record(long nanos)
+    {
+        this.counts.incrementAndGet(Stripes.offsetOf(Stripes.current(), STRIDE) + bucketOf(nanos));
+    }
+
+    /**
+     * @return Counts recorded so far, added up across every thread.
+     */
+    public LatencySnapshot snapshot()
+    {
+        long[] totals = new long[BUCKETS];
+        for (int stripe = 0; stripe < Stripes.COUNT; stripe++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                totals[bucket] += this.counts.get(Stripes.offsetOf(stripe, STRIDE) + bucket);
+            }
+        }
+
+        return new LatencySnapshot(totals);
+    }
+
+    /**
+     * @return The index of the bucket that a duration is counted in.
+     */
+    static int bucketOf(long nanos)
+    {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * @return The largest duration counted in a bucket, in nanoseconds.
+     */
+    static long upperBoundOf(int bucket)
+    {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+
+        return ((SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.metrics;
+
+/**
+ * Durations counted by a latency histogram at a point in time.
+ *
+ * Values are reported as the upper bound of the bucket they fall in, so
+ * they may overstate a duration by up to an eighth.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final public class LatencySnapshot
+{
+    final private long[] counts;
+    final private long count;
+
+    LatencySnapshot(long[] counts)
+    {
+        long count = 0;
+        for (long bucket : counts) {
+            count += bucket;
+        }
+
+        this.counts = counts;
+        this.count = count;
+    }
+
+    /**
+     * @return Number of durations counted.
+     */
+    final public long getCount()
+    {
+        return this.count;
+    }
+
+    /**
+     * @param percentile Percentage of durations, from 0 to 100.
+     * @return The duration that the percentage of counted durations are at
+     *         or below, in nanoseconds, or zero if nothing was counted.
+     */
+    final public long getPercentile(double percentile)
+    {
+        if (0 == this.count) {
+            return 0;
+        }
+
+        long target = Math.max(1, (long) Math.ceil(this.count * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int bucket = 0; bucket < this.counts.length; bucket++) {
+            seen += this.counts[bucket];
+            if (seen >= target) {
+                return LatencyHistogram.upperBoundOf(bucket);
+            }
+        }
+
+        return LatencyHistogram.upperBoundOf(this.counts.length - 1);
+    }
+
+    /**
+     * @return Approximate mean of the counted durations, in nanoseconds.
+     */
+    final public double getMean()
+    {
+        if (0 == this.count) {
+            return 0;
+        }
+
+        double total = 0;
+        for (int bucket = 0; bucket < this.counts.length; bucket++) {
+            total += (double) this.counts[bucket] * LatencyHistogram.upperBoundOf(bucket);
+        }
+
+        return total / this.count;
+    }
+
+    /**
+     * @return Approximate longest counted duration, in nanoseconds.
+     */
+    final public long getMax()
+    {
+        return this.getPercentile(100);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "LatencySnapshot{" +
+            "count=" + count +
+            ", p50=" + getPercentile(50) +
+            ", p99=" + getPercentile(99) +
+            ", max=" + getMax() +
+            '}';
+    }
+}
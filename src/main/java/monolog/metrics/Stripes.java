@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.metrics;
+
+/**
+ * Spreads counters across several copies, so that threads updating them at
+ * the same time mostly touch different memory.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+final class Stripes
+{
+    /**
+     * Number of copies of each counter; a power of two no larger than eight,
+     * fitted to the number of processors.
+     */
+    final static int COUNT = Math.min(8, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    /**
+     * Longs kept between the stripes, and before the first one: 128 bytes, so
+     * that neither two stripes nor a stripe and a neighbouring object share a
+     * cache line or the pair of lines that some processors fetch together.
+     */
+    final static int PADDING = 16;
+
+    private Stripes()
+    {
+    }
+
+    /**
+     * @param slots Number of counters in each stripe.
+     * @return Distance between the starts of two stripes, in longs.
+     */
+    static int strideOf(int slots)
+    {
+        return (slots + PADDING - 1) / PADDING * PADDING;
+    }
+
+    /**
+     * @param stride Distance between the starts of two stripes, in longs.
+     * @return Length of an array holding every stripe.
+     */
+    static int lengthOf(int stride)
+    {
+        return PADDING + COUNT * stride + PADDING;
+    }
+
+    /**
+     * @param stripe Stripe to find the start of.
+     * @param stride Distance between the starts of two stripes, in longs.
+     * @return Index of the stripe's first counter.
+     */
+    static int offsetOf(int stripe, int stride)
+    {
+        return PADDING + stripe * stride;
+    }
+
+    /**
+     * @return The stripe for the current thread to update.
+     */
+    static int current()
+    {
+        return (int) Thread.currentThread().getId() & (COUNT - 1);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class CachedClockTest
+{
+    @Test
+    public void neverGoesBackwards() throws InterruptedException
+    {
+        CachedClock clock = new CachedClock();
+        long startTime = clock.currentTimeMillis();
+        long startNanos = clock.nanoTime();
+        long lastTime = startTime;
+        long lastNanos = startNanos;
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        while (System.nanoTime() < deadline) {
+            long time = clock.currentTimeMillis();
+            long nanos = clock.nanoTime();
+            assertTrue(time >= lastTime);
+            assertTrue(nanos - lastNanos >= 0);
+            lastTime = time;
+            lastNanos = nanos;
+        }
+
+        assertTrue(lastTime > startTime);
+        assertTrue(lastNanos - startNanos > 0);
+        assertTrue(clock.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void stopsUpdatingAfterShutdown() throws InterruptedException
+    {
+        CachedClock clock = new CachedClock();
+        assertTrue(clock.shutdown(1, TimeUnit.SECONDS));
+
+        long time = clock.currentTimeMillis();
+        long nanos = clock.nanoTime();
+        Thread.sleep(20);
+
+        assertEquals(time, clock.currentTimeMillis());
+        assertEquals(nanos, clock.nanoTime());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsResolutionBelowAMillisecond()
+    {
+        new CachedClock(0);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.lang.reflect.Array;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class LogNamesTest
+{
+    @LogName("named")
+    private static class Named
+    {
+    }
+
+    private static class Unnamed
+    {
+    }
+
+    @After
+    public void tearDown()
+    {
+        LogNames.setRegistry(null);
+    }
+
+    @Test
+    public void readsAnnotation()
+    {
+        assertEquals("named", LogNames.getName(Named.class));
+        assertEquals("named", LogNames.getName(Named.class));
+    }
+
+    @Test
+    public void unannotatedClassesHaveNoName()
+    {
+        assertNull(LogNames.getName(Unnamed.class));
+        assertNull(LogNames.getName(Unnamed.class));
+        assertNull(LogNames.getName(String.class));
+    }
+
+    @Test
+    public void registryTakesPrecedence()
+    {
+        LogNames.setRegistry(new LogNameRegistry() {
+            @Override
+            public String getName(Class<?> type)
+            {
+                return Named.class == type ? "registered" : null;
+            }
+        });
+
+        assertEquals("registered", LogNames.getName(Named.class));
+        assertNull(LogNames.getName(Unnamed.class));
+    }
+
+    @Test
+    public void cacheGrowsWithManyClasses()
+    {
+        Class<?>[] types = new Class<?>[100];
+        Class<?> type = Unnamed.class;
+        for (int index = 0; index < types.length; index++) {
+            type = Array.newInstance(type, 0).getClass();
+            types[index] = type;
+            assertNull(LogNames.getName(type));
+        }
+
+        assertEquals("named", LogNames.getName(Named.class));
+        for (Class<?> each : types) {
+            assertNull(LogNames.getName(each));
+        }
+    }
+
+    @Test
+    public void concurrentLookups() throws InterruptedException
+    {
+        final Class<?>[] types = new Class<?>[64];
+        Class<?> type = Named.class;
+        for (int index = 0; index < types.length; index++) {
+            type = Array.newInstance(type, 0).getClass();
+            types[index] = type;
+        }
+
+        final boolean[] failed = new boolean[1];
+        Thread[] threads = new Thread[4];
+        for (int thread = 0; thread < threads.length; thread++) {
+            final int offset = thread;
+            threads[thread] = new Thread(new Runnable() {
+                @Override
+                public void run()
+                {
+                    for (int round = 0; round < 1000; round++) {
+                        Class<?> each = types[(round + offset * 16) % types.length];
+                        if (null != LogNames.getName(each) || false == "named".equals(LogNames.getName(Named.class))) {
+                            failed[0] = true;
+                        }
+                    }
+                }
+            });
+            threads[thread].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(false, failed[0]);
+    }
+}
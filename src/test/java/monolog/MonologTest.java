@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import monolog.handler.SwitchedHandler;
+import monolog.handler.parallel.ParallelHandler;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class MonologTest
+{
+    /**
+     * Counts the records it is enabled for.
+     */
+    private static class CountingHandler extends SwitchedHandler
+    {
+        final private AtomicInteger count = new AtomicInteger();
+
+        CountingHandler(LogLevel... levels)
+        {
+            super(levels);
+        }
+
+        @Override
+        protected HandlerResult log(Record record)
+        {
+            this.count.incrementAndGet();
+            return HandlerResult.HANDLED;
+        }
+    }
+
+    /**
+     * Marks the records that pass through it with the configuration it
+     * belongs to.
+     */
+    private static class Stamp implements Handler
+    {
+        final private static ThreadLocal<Object> CURRENT = new ThreadLocal<Object>();
+        final private Object configuration;
+
+        Stamp(Object configuration)
+        {
+            this.configuration = configuration;
+        }
+
+        @Override
+        public HandlerResult handle(Record record)
+        {
+            CURRENT.set(this.configuration);
+            return HandlerResult.PASSED;
+        }
+    }
+
+    /**
+     * Checks that the records reaching it were marked by the stamp of the
+     * same configuration.
+     */
+    private static class Check implements Handler
+    {
+        final private Object configuration;
+        final private AtomicInteger mismatches;
+        final private AtomicInteger count = new AtomicInteger();
+
+        Check(Object configuration, AtomicInteger mismatches)
+        {
+            this.configuration = configuration;
+            this.mismatches = mismatches;
+        }
+
+        @Override
+        public HandlerResult handle(Record record)
+        {
+            if (this.configuration != Stamp.CURRENT.get()) {
+                this.mismatches.incrementAndGet();
+            }
+            Stamp.CURRENT.remove();
+            this.count.incrementAndGet();
+
+            return HandlerResult.HANDLED;
+        }
+    }
+
+    @Test
+    public void levelChangesReachExistingChildren()
+    {
+        CountingHandler handler = new CountingHandler(LogLevel.ERROR);
+        Monolog logger = new Monolog(new Handler[] {handler}, true);
+        Monolog child = logger.child("sync");
+
+        child.debug("ignored");
+        assertFalse(child.isDebugEnabled());
+
+        handler.setLevels(new LogLevel[] {LogLevel.DEBUG, LogLevel.ERROR});
+        child.debug("counted");
+        assertTrue(logger.isDebugEnabled());
+        assertEquals(1, handler.count.get());
+
+        handler.setLevels(new LogLevel[] {LogLevel.ERROR});
+        child.debug("ignored");
+        assertFalse(child.isDebugEnabled());
+        assertEquals(1, handler.count.get());
+    }
+
+    @Test
+    public void levelChangesReachParallelGroups()
+    {
+        CountingHandler first = new CountingHandler(LogLevel.ERROR);
+        CountingHandler second = new CountingHandler(LogLevel.ERROR);
+        ParallelHandler group = new ParallelHandler(new Handler[] {first, second});
+        Monolog logger = new Monolog(new Handler[] {group}, true);
+
+        logger.info("ignored");
+        second.setLevels(new LogLevel[] {LogLevel.INFO, LogLevel.ERROR});
+        logger.info("counted");
+
+        assertTrue(group.isEnabled(LogLevel.INFO));
+        assertEquals(0, first.count.get());
+        assertEquals(1, second.count.get());
+    }
+
+    @Test
+    public void swapsConfigurationsWhileLogging() throws InterruptedException
+    {
+        final int threads = 8;
+        final int swaps = 2000;
+        final AtomicInteger mismatches = new AtomicInteger();
+        final Object[] configurations = {"first", "second"};
+        final Check[] checks = new Check[configurations.length];
+        final CountingHandler[] counters = new CountingHandler[configurations.length];
+        final Handler[][] chains = new Handler[configurations.length][];
+        for (int index = 0; index < configurations.length; index++) {
+            checks[index] = new Check(configurations[index], mismatches);
+            counters[index] = new CountingHandler(LogLevel.ERROR);
+            chains[index] = new Handler[] {new Stamp(configurations[index]), counters[index], checks[index]};
+        }
+
+        final Monolog logger = new Monolog(chains[0], true, true);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final CountDownLatch started = new CountDownLatch(threads);
+        final AtomicInteger logged = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger(1);
+        Thread[] workers = new Thread[threads];
+        for (int thread = 0; thread < threads; thread++) {
+            final Monolog child = logger.child("worker-" + thread);
+            workers[thread] = new Thread() {
+                @Override
+                public void run()
+                {
+                    started.countDown();
+                    try {
+                        while (1 == running.get()) {
+                            child.debug("Polled {}", logged.incrementAndGet());
+                            child.error("Failed");
+                            logged.incrementAndGet();
+                        }
+                    } catch (Throwable throwable) {
+                        failure.compareAndSet(null, throwable);
+                    }
+                }
+            };
+            workers[thread].start();
+        }
+
+        started.await();
+        for (int swap = 0; swap < swaps; swap++) {
+            int index = swap % configurations.length;
+            logger.setHandlers(chains[index]);
+            counters[index].setLevels(0 == swap % 3
+                ? new LogLevel[] {LogLevel.ERROR}
+                : new LogLevel[] {LogLevel.DEBUG, LogLevel.ERROR}
+            );
+        }
+        running.set(0);
+        for (Thread worker : workers) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        assertNull(failure.get());
+        assertEquals(0, mismatches.get());
+        assertEquals(logged.get(), checks[0].count.get() + checks[1].count.get());
+
+        CountingHandler last = counters[(swaps - 1) % configurations.length];
+        int before = last.count.get();
+        last.setLevels(new LogLevel[] {LogLevel.DEBUG});
+        logger.child("worker-0").debug("After the swaps");
+        assertEquals(before + 1, last.count.get());
+    }
+
+    /**
+     * Clock that reads whatever time it was last set to.
+     */
+    private static class FixedClock implements Clock
+    {
+        private volatile long time;
+        private volatile long nanos;
+
+        FixedClock(long time, long nanos)
+        {
+            this.time = time;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public long currentTimeMillis()
+        {
+            return this.time;
+        }
+
+        @Override
+        public long nanoTime()
+        {
+            return this.nanos;
+        }
+    }
+
+    /**
+     * Keeps a copy of each record, and the stamps of the record as it was
+     * handed over.
+     */
+    private static class Keeper implements Handler
+    {
+        final private List<Record> copies = new ArrayList<Record>();
+        final private List<long[]> stamps = new ArrayList<long[]>();
+
+        @Override
+        public synchronized HandlerResult handle(Record record)
+        {
+            this.copies.add(record.copy());
+            this.stamps.add(new long[] {record.getTimestamp(), record.getNanoTime(), record.getThreadId()});
+            return HandlerResult.HANDLED;
+        }
+    }
+
+    @Test
+    public void recordsCarryClockTimesAndLoggingThread() throws InterruptedException
+    {
+        final Keeper keeper = new Keeper();
+        final Monolog logger = new Monolog(new Handler[] {keeper}, true, false, null, new FixedClock(1434240000000L, 42L));
+        Thread thread = new Thread() {
+            @Override
+            public void run()
+            {
+                logger.child("sync").info("Synced {} items", 3);
+            }
+        };
+        thread.start();
+        thread.join();
+
+        assertArrayEquals(new long[] {1434240000000L, 42L, thread.getId()}, keeper.stamps.get(0));
+        Record copy = keeper.copies.get(0);
+        assertEquals(1434240000000L, copy.getTimestamp());
+        assertEquals(42L, copy.getNanoTime());
+        assertEquals(thread.getId(), copy.getThreadId());
+    }
+
+    @Test
+    public void pooledRecordsAndCopiesKeepTheirStamps()
+    {
+        Keeper keeper = new Keeper();
+        FixedClock clock = new FixedClock(1000L, 10L);
+        Monolog logger = new Monolog(new Handler[] {keeper}, true, true, null, clock);
+
+        logger.info("First");
+        clock.time = 2000L;
+        clock.nanos = 20L;
+        logger.info("Second");
+
+        long thread = Thread.currentThread().getId();
+        assertArrayEquals(new long[] {1000L, 10L, thread}, keeper.stamps.get(0));
+        assertArrayEquals(new long[] {2000L, 20L, thread}, keeper.stamps.get(1));
+
+        Record first = keeper.copies.get(0);
+        assertEquals(1000L, first.getTimestamp());
+        assertEquals(10L, first.getNanoTime());
+        assertEquals(thread, first.getThreadId());
+        assertEquals(2000L, keeper.copies.get(1).getTimestamp());
+        assertEquals(1000L, first.copy().getTimestamp());
+    }
+}
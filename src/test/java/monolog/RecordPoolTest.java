@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import monolog.handler.NullHandler;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class RecordPoolTest
+{
+    final private static int CALLS = 100000;
+
+    @Test
+    public void pooledDispatchDoesNotAllocate()
+    {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        Monolog logger = new Monolog(new Handler[] {new NullHandler(LogLevel.ALL)}, true, true);
+        long threadId = Thread.currentThread().getId();
+
+        for (int index = 0; index < CALLS; index++) {
+            logger.info("Loaded the user's settings");
+        }
+
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int index = 0; index < CALLS; index++) {
+            logger.info("Loaded the user's settings");
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        // Reading the counter may allocate a few bytes of its own, which is
+        // far less than a byte per call.
+        assertEquals("Bytes allocated per call", 0, allocated / CALLS);
+    }
+
+    @Test
+    public void copiesKeepTheirStatementAfterReuse()
+    {
+        final List<Record> kept = new ArrayList<Record>();
+        final List<Record> handled = new ArrayList<Record>();
+        Handler keeper = new Handler() {
+            @Override
+            public HandlerResult handle(Record record)
+            {
+                handled.add(record);
+                kept.add(record.copy());
+                return HandlerResult.HANDLED;
+            }
+        };
+        Monolog logger = new Monolog(new Handler[] {keeper}, true, true);
+
+        logger.info("first");
+        logger.warn("second {}", 2);
+
+        assertSame(handled.get(0), handled.get(1));
+        assertEquals("first", kept.get(0).getMessageString());
+        assertEquals(LogLevel.INFO, kept.get(0).getLevel());
+        assertEquals("second 2", kept.get(1).getMessageString());
+        assertEquals(LogLevel.WARN, kept.get(1).getLevel());
+    }
+
+    @Test
+    public void nestedStatementsGetTheirOwnRecord()
+    {
+        final List<Record> handled = new ArrayList<Record>();
+        final List<String> messages = new ArrayList<String>();
+        final Monolog[] logger = new Monolog[1];
+        Handler nesting = new Handler() {
+            @Override
+            public HandlerResult handle(Record record)
+            {
+                handled.add(record);
+                if (LogLevel.ERROR == record.getLevel()) {
+                    logger[0].info("while handling");
+                }
+                messages.add(record.getMessageString());
+                return HandlerResult.HANDLED;
+            }
+        };
+        logger[0] = new Monolog(new Handler[] {nesting}, true, true);
+
+        logger[0].error("outer");
+
+        assertNotSame(handled.get(0), handled.get(1));
+        assertEquals("while handling", messages.get(0));
+        assertEquals("outer", messages.get(1));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class ThrowableRendererTest
+{
+    /**
+     * @return An exception whose top twelve frames are the same for every
+     *         caller, and whose lower frames end in the given method.
+     */
+    private static IllegalStateException thrownFrom(String caller)
+    {
+        StackTraceElement[] frames = new StackTraceElement[16];
+        for (int index = 0; index < 12; index++) {
+            frames[index] = new StackTraceElement("com.example.Sync", "step" + index, "Sync.java", 10 + index);
+        }
+        for (int index = 12; index < frames.length; index++) {
+            frames[index] = new StackTraceElement("com.example." + caller, "run" + index, caller + ".java", index);
+        }
+
+        IllegalStateException exception = new IllegalStateException("Offline");
+        exception.setStackTrace(frames);
+
+        return exception;
+    }
+
+    @Test
+    public void rendersLowerFramesOfMatchingFingerprints()
+    {
+        ThrowableRenderer renderer = new ThrowableRenderer(32, 8, 16);
+        IllegalStateException fromScreen = thrownFrom("Screen");
+        IllegalStateException fromService = thrownFrom("Service");
+
+        assertEquals(renderer.fingerprint(fromScreen), renderer.fingerprint(fromService));
+
+        String screen = renderer.render(fromScreen);
+        String service = renderer.render(fromService);
+
+        assertTrue(screen.contains("at com.example.Screen.run15(Screen.java:15)"));
+        assertFalse(screen.contains("com.example.Service"));
+        assertTrue(service.contains("at com.example.Service.run15(Service.java:15)"));
+        assertFalse(service.contains("com.example.Screen"));
+        assertEquals(screen, renderer.render(fromScreen));
+    }
+
+    @Test
+    public void reusesRepeatedTraces()
+    {
+        ThrowableRenderer renderer = new ThrowableRenderer(32, 8, 16);
+        IllegalStateException first = thrownFrom("Screen");
+        IllegalStateException second = thrownFrom("Screen");
+
+        String rendered = renderer.render(first);
+
+        assertSame(rendered, renderer.render(second));
+    }
+
+    @Test
+    public void matchesPrintStackTrace()
+    {
+        ThrowableRenderer renderer = new ThrowableRenderer(32, 8, 16);
+        IllegalStateException cause = thrownFrom("Service");
+        RuntimeException exception = new RuntimeException("Sync failed", cause);
+        StackTraceElement[] frames = thrownFrom("Screen").getStackTrace();
+        exception.setStackTrace(frames);
+
+        String rendered = renderer.render(exception);
+
+        assertTrue(rendered.startsWith("java.lang.RuntimeException: Sync failed\n\tat com.example.Sync.step0(Sync.java:10)\n"));
+        assertTrue(rendered.contains("Caused by: java.lang.IllegalStateException: Offline\n"));
+        assertTrue(rendered.endsWith("\tat com.example.Service.run15(Service.java:15)\n"));
+    }
+}
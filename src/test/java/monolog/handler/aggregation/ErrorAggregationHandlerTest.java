@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.aggregation;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class ErrorAggregationHandlerTest
+{
+    final private static Pattern SUMMARY = Pattern.compile("Sync failed \\((\\d+) occurrences in (\\d+) (seconds|milliseconds)\\)");
+
+    final private List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+    final private Handler collector = new Handler() {
+        @Override
+        public HandlerResult handle(Record record)
+        {
+            messages.add(record.getMessageString());
+            return HandlerResult.HANDLED;
+        }
+    };
+
+    private void awaitMessages(int count) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.messages.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void summarizesAfterErrorsStop() throws InterruptedException
+    {
+        ErrorAggregationHandler handler = new ErrorAggregationHandler(this.collector, 100, 16);
+
+        for (int index = 0; index < 4; index++) {
+            handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+        }
+        this.awaitMessages(2);
+
+        assertEquals(2, this.messages.size());
+        assertEquals("Sync failed", this.messages.get(0));
+        Matcher summary = SUMMARY.matcher(this.messages.get(1));
+        assertTrue(this.messages.get(1), summary.matches());
+        assertEquals("3", summary.group(1));
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void fatalSummaryGivesTimeSinceFirstError() throws InterruptedException
+    {
+        ErrorAggregationHandler handler = new ErrorAggregationHandler(this.collector, TimeUnit.HOURS.toMillis(1), 16);
+
+        handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+        handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+        handler.handle(new Record(LogLevel.FATAL, "Crashed", null));
+
+        assertEquals(3, this.messages.size());
+        Matcher summary = SUMMARY.matcher(this.messages.get(1));
+        assertTrue(this.messages.get(1), summary.matches());
+        assertEquals("1", summary.group(1));
+        assertEquals("milliseconds", summary.group(3));
+        assertEquals("Crashed", this.messages.get(2));
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void evictsQuietestGroup() throws InterruptedException
+    {
+        ErrorAggregationHandler handler = new ErrorAggregationHandler(this.collector, TimeUnit.HOURS.toMillis(1), 1);
+
+        handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+        handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+        handler.handle(new Record(LogLevel.ERROR, "Upload failed", null));
+
+        assertEquals(3, this.messages.size());
+        assertTrue(this.messages.get(1), SUMMARY.matcher(this.messages.get(1)).matches());
+        assertEquals("Upload failed", this.messages.get(2));
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.analytics;
+
+import monolog.LogLevel;
+import monolog.Record;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class AnalyticsHandlerTest
+{
+    @Test
+    public void screenNameOnlySetWhenItChanges()
+    {
+        FakeAnalyticsTracker tracker = new FakeAnalyticsTracker();
+        AnalyticsHandler handler = new AnalyticsHandler(tracker);
+
+        handler.handle(screen("Home"));
+        handler.handle(screen("Home"));
+        handler.handle(screen("Settings"));
+        handler.handle(screen("Settings"));
+
+        assertEquals(Arrays.asList("Home", "Settings"), tracker.screenNames);
+        assertEquals(Arrays.asList("Home", "Home", "Settings", "Settings"), tracker.hitScreens);
+    }
+
+    @Test
+    public void partialBatchSentOnceDue() throws InterruptedException
+    {
+        FakeAnalyticsTracker tracker = new FakeAnalyticsTracker();
+        AnalyticsHandler handler = new AnalyticsHandler(tracker, 10, 50);
+
+        handler.handle(event("Sync", 1L));
+        handler.handle(event("Sync", 2L));
+        assertEquals(0, tracker.size());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (0 == tracker.size() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(1, tracker.size());
+        assertEquals("3", tracker.hits.get(0).get("&ev"));
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shutdownSendsWaitingHits() throws InterruptedException
+    {
+        FakeAnalyticsTracker tracker = new FakeAnalyticsTracker();
+        AnalyticsHandler handler = new AnalyticsHandler(tracker, 10, TimeUnit.HOURS.toMillis(1));
+
+        handler.handle(event("Sync", 1L));
+        handler.handle(event("Load", null));
+        assertEquals(0, tracker.size());
+
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+        assertEquals(2, tracker.size());
+    }
+
+    @Test
+    public void fatalSendsBatchRightAway()
+    {
+        FakeAnalyticsTracker tracker = new FakeAnalyticsTracker();
+        AnalyticsHandler handler = new AnalyticsHandler(tracker, 10, TimeUnit.HOURS.toMillis(1));
+
+        handler.handle(event("Sync", 1L));
+        assertEquals(0, tracker.size());
+        handler.handle(new Record(LogLevel.FATAL, "Crashed", null));
+
+        assertEquals(2, tracker.size());
+    }
+
+    private static Record screen(String name)
+    {
+        return new Record(LogLevel.TRACE, new TrackedScreen(name), null);
+    }
+
+    private static Record event(String action, Long value)
+    {
+        return new Record(LogLevel.TRACE, new TrackedEvent("Test", action, null, value), null);
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.analytics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records the hits sent to it, each with the screen name it was sent under.
+ *
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+class FakeAnalyticsTracker implements AnalyticsTracker
+{
+    final List<String> screenNames = new ArrayList<String>();
+    final List<Map<String, String>> hits = new ArrayList<Map<String, String>>();
+    final List<String> hitScreens = new ArrayList<String>();
+    private String screenName;
+
+    /**
+     * Number of sends that will throw before the tracker works again.
+     */
+    int failures;
+
+    @Override
+    public synchronized void setScreenName(String name)
+    {
+        this.screenName = name;
+        this.screenNames.add(name);
+    }
+
+    @Override
+    public synchronized void send(Map<String, String> hit)
+    {
+        if (this.failures > 0) {
+            this.failures--;
+            throw new IllegalStateException("Offline");
+        }
+
+        this.hits.add(hit);
+        this.hitScreens.add(this.screenName);
+    }
+
+    synchronized int size()
+    {
+        return this.hits.size();
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.analytics;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class PersistentTrackerTest
+{
+    final private static int SEGMENT_SIZE = 4096;
+    final private static int MAX_SEGMENTS = 16;
+
+    @Rule
+    final public TemporaryFolder folder = new TemporaryFolder();
+
+    private static Map<String, String> hit(int number)
+    {
+        return Collections.singletonMap("n", String.valueOf(number));
+    }
+
+    /**
+     * @return The numbers of the hits a tracker was sent, in order.
+     */
+    private static List<String> numbers(FakeAnalyticsTracker tracker)
+    {
+        List<String> numbers = new ArrayList<String>();
+        synchronized (tracker) {
+            for (Map<String, String> hit : tracker.hits) {
+                numbers.add(hit.get("n"));
+            }
+        }
+
+        return numbers;
+    }
+
+    private static void awaitHits(FakeAnalyticsTracker tracker, int count) throws InterruptedException
+    {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (tracker.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Appends hits to a log and then abandons it, without reading or
+     * acknowledging them, as if the process died.
+     */
+    private void appendThenCrash(String screenName, int from, int to) throws IOException
+    {
+        HitLog log = new HitLog(this.folder.getRoot(), SEGMENT_SIZE, MAX_SEGMENTS);
+        for (int number = from; number < to; number++) {
+            assertTrue(log.append(screenName, hit(number)));
+        }
+    }
+
+    private HitLog reopen() throws IOException
+    {
+        return new HitLog(this.folder.getRoot(), SEGMENT_SIZE, MAX_SEGMENTS);
+    }
+
+    /**
+     * @return The numbers of every hit left to read from a log.
+     */
+    private static List<String> readAll(HitLog log) throws IOException
+    {
+        List<String> numbers = new ArrayList<String>();
+        for (HitLog.Hit hit = log.read(); null != hit; hit = log.read()) {
+            numbers.add(hit.getFields().get("n"));
+        }
+
+        return numbers;
+    }
+
+    @Test
+    public void deliversHitsWithTheirScreenNames() throws InterruptedException
+    {
+        FakeAnalyticsTracker tracker = new FakeAnalyticsTracker();
+        PersistentTracker persistent = new PersistentTracker(tracker, this.folder.getRoot(), SEGMENT_SIZE, MAX_SEGMENTS, 20);
+
+        persistent.setScreenName("Home");
+        persistent.send(hit(0));
+        persistent.send(hit(1));
+        persistent.setScreenName("Settings");
+        persistent.send(hit(2));
+        awaitHits(tracker, 3);
+
+        assertEquals(Arrays.asList("0", "1", "2"), numbers(tracker));
+        assertEquals(Arrays.asList("Home", "Home", "Settings"), tracker.hitScreens);
+        assertTrue(persistent.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void replaysUnacknowledgedHitsAfterCrash() throws IOException, InterruptedException
+    {
+        HitLog log = new HitLog(this.folder.getRoot(), SEGMENT_SIZE, MAX_SEGMENTS);
+        for (int number = 0; number < 5; number++) {
+            log.append("Home", hit(number));
+        }
+        log.read();
+        log.read();
+        log.acknowledge();
+        // Read, but the process dies before it is acknowledged.
+        log.read();
+
+        FakeAnalyticsTracker tracker = new FakeAnalyticsTracker();
+        PersistentTracker persistent = new PersistentTracker(tracker, this.folder.getRoot(), SEGMENT_SIZE, MAX_SEGMENTS, 20);
+        awaitHits(tracker, 3);
+        assertTrue(persistent.shutdown(1, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("2", "3", "4"), numbers(tracker));
+        assertEquals(Arrays.asList("Home", "Home", "Home"), tracker.hitScreens);
+        assertEquals(Collections.emptyList(), readAll(this.reopen()));
+    }
+
+    @Test
+    public void corruptTailEntryIsErased() throws IOException
+    {
+        this.appendThenCrash("Home", 0, 3);
+
+        File segment = new File(this.folder.getRoot(), String.format("%016d.hits", 0));
+        RandomAccessFile file = new RandomAccessFile(segment, "rw");
+        try {
+            int offset = 0;
+            int last = 0;
+            for (int length = file.readInt(); length > 0; length = file.readInt()) {
+                last = offset;
+                offset += 8 + length;
+                file.seek(offset);
+            }
+            // Damage the contents of the last entry, as a torn write would.
+            file.seek(last + 9);
+            file.write(0x7F);
+        } finally {
+            file.close();
+        }
+
+        HitLog log = this.reopen();
+        assertTrue(log.append("Home", hit(3)));
+
+        assertEquals(Arrays.asList("0", "1", "3"), readAll(log));
+        assertEquals(Arrays.asList("0", "1", "3"), readAll(this.reopen()));
+    }
+
+    @Test
+    public void tornAcknowledgementFallsBackToOtherSlot() throws IOException
+    {
+        HitLog log = new HitLog(this.folder.getRoot(), SEGMENT_SIZE, MAX_SEGMENTS);
+        for (int number = 0; number < 4; number++) {
+            log.append("Home", hit(number));
+        }
+        log.read();
+        log.read();
+        log.acknowledge();
+        log.read();
+        log.read();
+        log.acknowledge();
+
+        RandomAccessFile file = new RandomAccessFile(new File(this.folder.getRoot(), "acknowledged"), "rw");
+        try {
+            int newest = file.readLong() > 1 ? 0 : 24;
+            // Damage the offset of the newest acknowledgement.
+            file.seek(newest + 16);
+            file.writeInt(12345);
+        } finally {
+            file.close();
+        }
+
+        assertEquals(Arrays.asList("2", "3"), readAll(this.reopen()));
+    }
+
+    @Test
+    public void rewindsWhenTrackerThrowsPartWayThroughBatch() throws IOException, InterruptedException
+    {
+        this.appendThenCrash("Home", 0, 5);
+
+        FakeAnalyticsTracker tracker = new FakeAnalyticsTracker() {
+            private int sends;
+
+            @Override
+            public synchronized void send(Map<String, String> hit)
+            {
+                if (3 == ++this.sends) {
+                    throw new IllegalStateException("Offline");
+                }
+                super.send(hit);
+            }
+        };
+        final List<Throwable> reported = Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread.UncaughtExceptionHandler previous = Thread.getDefaultUncaughtExceptionHandler();
+        Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+            @Override
+            public void uncaughtException(Thread thread, Throwable throwable)
+            {
+                reported.add(throwable);
+            }
+        });
+        try {
+            PersistentTracker persistent = new PersistentTracker(tracker, this.folder.getRoot(), SEGMENT_SIZE, MAX_SEGMENTS, TimeUnit.HOURS.toMillis(1));
+            awaitHits(tracker, 2);
+            persistent.flush();
+            awaitHits(tracker, 7);
+            assertTrue(persistent.shutdown(1, TimeUnit.SECONDS));
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(previous);
+        }
+
+        // The hits sent before the failure are sent again with the rest.
+        assertEquals(Arrays.asList("0", "1", "0", "1", "2", "3", "4"), numbers(tracker));
+        assertEquals(1, reported.size());
+        assertEquals(Collections.emptyList(), readAll(this.reopen()));
+    }
+
+    @Test
+    public void dropsHitsOnceFull() throws IOException
+    {
+        HitLog log = new HitLog(this.folder.getRoot(), 64, 2);
+        int appended = 0;
+        while (log.append(null, hit(appended))) {
+            appended++;
+        }
+
+        assertTrue(appended > 0);
+        assertEquals(appended, readAll(log).size());
+        assertNull(log.read());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.datagram;
+
+import monolog.Context;
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.file.ByteSink;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class SyslogRecordEncoderTest
+{
+    final private SyslogRecordEncoder encoder = new SyslogRecordEncoder("device", "app");
+
+    private String encode(Record record)
+    {
+        ByteSink sink = new ByteSink(256);
+        this.encoder.start(sink);
+        this.encoder.encode(record, sink);
+
+        ByteBuffer buffer = ByteBuffer.allocate(sink.size());
+        sink.copyTo(buffer);
+
+        return new String(buffer.array(), Charset.forName("UTF-8"));
+    }
+
+    /**
+     * @return The part of a line after the timestamp.
+     */
+    private static String afterTimestamp(String line)
+    {
+        return line.substring(line.indexOf(" device "));
+    }
+
+    @Test
+    public void writesHeaderAndMessage()
+    {
+        String line = this.encode(new Record("sync", Context.EMPTY, LogLevel.ERROR, "Sync failed", 0, null, null, null, null));
+
+        assertTrue(line, line.startsWith("<11>1 "));
+        assertEquals(" device app - sync - Sync failed\n", afterTimestamp(line));
+    }
+
+    @Test
+    public void escapesControlCharactersInParameterValues()
+    {
+        Context context = Context.EMPTY.with("user", "ma\"x]\\\nroot\u0000\u0085");
+        String line = this.encode(new Record("sync", context, LogLevel.INFO, "Signed in", 0, null, null, null, null));
+
+        assertEquals(
+            " device app - sync [context@32473 user=\"ma\\\"x\\]\\\\#012root#000#205\"] Signed in\n",
+            afterTimestamp(line)
+        );
+    }
+
+    @Test
+    public void escapesControlCharactersInMessage()
+    {
+        String line = this.encode(new Record("sync", Context.EMPTY, LogLevel.WARN, "Retrying\r\n\tlater\u009b", 0, null, null, null, null));
+
+        assertEquals(" device app - sync - Retrying#015#012#011later#233\n", afterTimestamp(line));
+    }
+
+    @Test
+    public void writesCauseOnTheSameLine()
+    {
+        IllegalStateException cause = new IllegalStateException("Offline");
+        cause.setStackTrace(new StackTraceElement[] {new StackTraceElement("com.example.Sync", "run", "Sync.java", 12)});
+        String line = this.encode(new Record("sync", Context.EMPTY, LogLevel.ERROR, "Sync failed", 0, null, null, null, cause));
+
+        assertEquals(
+            " device app - sync - Sync failed#012java.lang.IllegalStateException: Offline#012#011at com.example.Sync.run(Sync.java:12)\n",
+            afterTimestamp(line)
+        );
+        assertEquals(line.length() - 1, line.indexOf('\n'));
+    }
+}
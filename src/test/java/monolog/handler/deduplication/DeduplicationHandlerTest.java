@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.deduplication;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class DeduplicationHandlerTest
+{
+    final private List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+    final private Handler collector = new Handler() {
+        @Override
+        public HandlerResult handle(Record record)
+        {
+            messages.add(record.getMessageString());
+            return HandlerResult.HANDLED;
+        }
+    };
+
+    @Test
+    public void collapsesConsecutiveRepeats() throws InterruptedException
+    {
+        DeduplicationHandler handler = new DeduplicationHandler(this.collector, TimeUnit.HOURS.toMillis(1));
+
+        for (int index = 0; index < 5; index++) {
+            handler.handle(new Record(LogLevel.ERROR, "Retrying", null));
+        }
+        handler.handle(new Record(LogLevel.ERROR, "Gave up", null));
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+
+        assertEquals(3, this.messages.size());
+        assertEquals("Retrying", this.messages.get(0));
+        assertEquals("Retrying (repeated 4 times)", this.messages.get(1));
+        assertEquals("Gave up", this.messages.get(2));
+    }
+
+    @Test
+    public void burstEndsWithoutAnotherRecord() throws InterruptedException
+    {
+        DeduplicationHandler handler = new DeduplicationHandler(this.collector, 50);
+
+        for (int index = 0; index < 3; index++) {
+            handler.handle(new Record(LogLevel.ERROR, "Retrying", null));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.messages.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, this.messages.size());
+        assertEquals("Retrying (repeated 2 times)", this.messages.get(1));
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void wrappedHandlerIsCalledWithoutHoldingTheLock() throws InterruptedException
+    {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Handler slow = new Handler() {
+            @Override
+            public HandlerResult handle(Record record)
+            {
+                if ("Slow".equals(record.getMessageString())) {
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                messages.add(record.getMessageString());
+                return HandlerResult.HANDLED;
+            }
+        };
+        final DeduplicationHandler handler = new DeduplicationHandler(slow, TimeUnit.HOURS.toMillis(1), 4);
+
+        Thread logger = new Thread(new Runnable() {
+            @Override
+            public void run()
+            {
+                handler.handle(new Record(LogLevel.ERROR, "Slow", null));
+            }
+        });
+        logger.start();
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        handler.handle(new Record(LogLevel.ERROR, "Fast", null));
+        assertEquals(Collections.singletonList("Fast"), this.messages);
+
+        release.countDown();
+        logger.join();
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void burstsEndedBeforeARepeatAreSent() throws InterruptedException
+    {
+        DeduplicationHandler handler = new DeduplicationHandler(this.collector, 50, 2);
+
+        handler.handle(new Record(LogLevel.ERROR, "A", null));
+        handler.handle(new Record(LogLevel.ERROR, "B", null));
+        handler.handle(new Record(LogLevel.ERROR, "B", null));
+        Thread.sleep(35);
+        handler.handle(new Record(LogLevel.ERROR, "A", null));
+        Thread.sleep(30);
+        handler.handle(new Record(LogLevel.ERROR, "A", null));
+        handler.flush();
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+
+        assertTrue(this.messages.toString(), this.messages.contains("B (repeated 1 time)"));
+        assertTrue(this.messages.toString(), this.messages.contains("A (repeated 2 times)"));
+        assertEquals(4, this.messages.size());
+    }
+
+    @Test
+    public void burstEndedWhileMatchingARepeatIsSent() throws InterruptedException
+    {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Handler blocking = new Handler() {
+            @Override
+            public HandlerResult handle(Record record)
+            {
+                messages.add(record.getMessageString());
+                if (record.getMessageString().startsWith("C (")) {
+                    // Keeps the background thread from ending the other bursts.
+                    blocked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return HandlerResult.HANDLED;
+            }
+        };
+        DeduplicationHandler handler = new DeduplicationHandler(blocking, 200, 3);
+
+        handler.handle(new Record(LogLevel.ERROR, "C", null));
+        handler.handle(new Record(LogLevel.ERROR, "C", null));
+        Thread.sleep(80);
+        // Free entries are taken from the last, so B is checked before A.
+        handler.handle(new Record(LogLevel.ERROR, "A", null));
+        handler.handle(new Record(LogLevel.ERROR, "B", null));
+        handler.handle(new Record(LogLevel.ERROR, "B", null));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        handler.handle(new Record(LogLevel.ERROR, "A", null));
+        Thread.sleep(150);
+        // B's window has passed, and is ended on the way to matching A.
+        handler.handle(new Record(LogLevel.ERROR, "A", null));
+        assertTrue(this.messages.toString(), this.messages.contains("B (repeated 1 time)"));
+
+        release.countDown();
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+        assertTrue(this.messages.toString(), this.messages.contains("A (repeated 2 times)"));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.file;
+
+import monolog.Context;
+import monolog.LogLevel;
+import monolog.Record;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class BinaryRecordEncoderTest
+{
+    @Test
+    public void templatesAndArguments() throws IOException
+    {
+        Record record = new Record(
+            "sync",
+            Context.EMPTY,
+            LogLevel.INFO,
+            "Loaded {} of {} in {}",
+            3,
+            42,
+            -7L,
+            3.5,
+            null
+        );
+
+        DecodedRecord decoded = decodeOne(new BinaryRecordEncoder(), record);
+
+        assertEquals(LogLevel.INFO, decoded.getLevel());
+        assertEquals(record.getTimestamp(), decoded.getTimestamp());
+        assertEquals("sync", decoded.getTag());
+        assertEquals("Loaded {} of {} in {}", decoded.getTemplate());
+        assertArrayEquals(new Object[] {42L, -7L, 3.5}, decoded.getArguments());
+        assertEquals("Loaded 42 of -7 in 3.5", decoded.getMessage());
+    }
+
+    @Test
+    public void otherArgumentTypes() throws IOException
+    {
+        Record record = new Record(LogLevel.DEBUG, "{} {} {}", 3, true, null, Arrays.asList("a", "\u00fc"), null);
+
+        DecodedRecord decoded = decodeOne(new BinaryRecordEncoder(), record);
+
+        assertArrayEquals(new Object[] {Boolean.TRUE, null, "[a, \u00fc]"}, decoded.getArguments());
+        assertNull(decoded.getTag());
+    }
+
+    @Test
+    public void messagesWithoutArguments() throws IOException
+    {
+        DecodedRecord decoded = decodeOne(new BinaryRecordEncoder(), new Record(LogLevel.WARN, "Low battery", null));
+
+        assertEquals("Low battery", decoded.getTemplate());
+        assertEquals(0, decoded.getArguments().length);
+        assertNull(decoded.getCauseClass());
+    }
+
+    @Test
+    public void causes() throws IOException
+    {
+        Record record = new Record(LogLevel.ERROR, "Sync failed", new IllegalStateException("Offline"));
+
+        DecodedRecord decoded = decodeOne(new BinaryRecordEncoder(), record);
+
+        assertEquals(IllegalStateException.class.getName(), decoded.getCauseClass());
+        assertEquals("Offline", decoded.getCauseMessage());
+        assertTrue(decoded.toString().endsWith("Sync failed\njava.lang.IllegalStateException: Offline"));
+    }
+
+    @Test
+    public void dictionaryGrowsThenWritesStringsInFull() throws IOException
+    {
+        BinaryRecordEncoder encoder = new BinaryRecordEncoder(4);
+        Record[] records = new Record[20];
+        for (int index = 0; index < records.length; index++) {
+            records[index] = new Record(LogLevel.INFO, "Message " + index % 10, null);
+        }
+
+        BinaryLogDecoder decoder = decoder(encode(encoder, records));
+
+        for (Record record : records) {
+            DecodedRecord decoded = decoder.read();
+            assertEquals(record.getMessageString(), decoded.getTemplate());
+        }
+        assertNull(decoder.read());
+    }
+
+    @Test
+    public void repeatedMessagesAreSmallerThanText() throws IOException
+    {
+        Record[] records = new Record[1000];
+        for (int index = 0; index < records.length; index++) {
+            records[index] = new Record(LogLevel.INFO, "Loaded {} settings in {} ms", 2, index, index % 50, null, null);
+        }
+
+        int binary = encode(new BinaryRecordEncoder(), records).length;
+        int text = encode(new TextRecordEncoder(), records).length;
+
+        assertTrue("Binary " + binary + " bytes against text " + text, binary * 4 < text);
+    }
+
+    @Test
+    public void truncatedTrailingRecord() throws IOException
+    {
+        Record first = new Record(LogLevel.INFO, "First", null);
+        Record second = new Record(LogLevel.INFO, "Second {}", 1, "argument", null, null, null);
+        byte[] full = encode(new BinaryRecordEncoder(), first, second);
+        byte[] truncated = Arrays.copyOf(full, full.length - 3);
+
+        BinaryLogDecoder decoder = decoder(truncated);
+        assertEquals("First", decoder.read().getTemplate());
+        try {
+            decoder.read();
+            fail("Expected the truncated record to be reported");
+        } catch (EOFException expected) {
+            // The partial record is not returned.
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws IOException
+    {
+        decoder("not a log".getBytes("UTF-8"));
+    }
+
+    private static DecodedRecord decodeOne(BinaryRecordEncoder encoder, Record record) throws IOException
+    {
+        BinaryLogDecoder decoder = decoder(encode(encoder, record));
+        DecodedRecord decoded = decoder.read();
+        assertNull(decoder.read());
+
+        return decoded;
+    }
+
+    private static BinaryLogDecoder decoder(byte[] bytes) throws IOException
+    {
+        return new BinaryLogDecoder(new ByteArrayInputStream(bytes));
+    }
+
+    private static byte[] encode(RecordEncoder encoder, Record... records)
+    {
+        ByteSink sink = new ByteSink(256);
+        encoder.start(sink);
+        for (Record record : records) {
+            encoder.encode(record, sink);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(sink.size());
+        sink.copyTo(buffer);
+
+        return buffer.array();
+    }
+}
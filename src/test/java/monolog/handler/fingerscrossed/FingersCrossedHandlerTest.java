@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.fingerscrossed;
+
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class FingersCrossedHandlerTest
+{
+    final private List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+    final private Handler collector = new Handler() {
+        @Override
+        public HandlerResult handle(Record record)
+        {
+            messages.add(record.getMessageString());
+            return HandlerResult.HANDLED;
+        }
+    };
+
+    @Test
+    public void buffersRecordsBelowTrigger()
+    {
+        FingersCrossedHandler handler = new FingersCrossedHandler(this.collector, LogLevel.ERROR, 4, TimeUnit.HOURS.toMillis(1));
+
+        assertEquals(HandlerResult.HANDLED, handler.handle(new Record(LogLevel.INFO, "Started sync", null)));
+        assertEquals(HandlerResult.HANDLED, handler.handle(new Record(LogLevel.WARN, "Slow response", null)));
+
+        assertEquals(Collections.emptyList(), this.messages);
+    }
+
+    @Test
+    public void triggerSendsMostRecentRecordsFirst()
+    {
+        FingersCrossedHandler handler = new FingersCrossedHandler(this.collector, LogLevel.ERROR, 2, TimeUnit.HOURS.toMillis(1));
+
+        handler.handle(new Record(LogLevel.DEBUG, "Opened", null));
+        handler.handle(new Record(LogLevel.INFO, "Started sync", null));
+        handler.handle(new Record(LogLevel.WARN, "Slow response", null));
+        handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+
+        assertEquals(Arrays.asList("Started sync", "Slow response", "Sync failed"), this.messages);
+    }
+
+    @Test
+    public void passThroughExpires() throws InterruptedException
+    {
+        FingersCrossedHandler handler = new FingersCrossedHandler(this.collector, LogLevel.ERROR, 4, 50);
+
+        handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+        handler.handle(new Record(LogLevel.INFO, "Retrying", null));
+        assertEquals(Arrays.asList("Sync failed", "Retrying"), this.messages);
+
+        Thread.sleep(100);
+        handler.handle(new Record(LogLevel.INFO, "Recovered", null));
+        assertEquals(Arrays.asList("Sync failed", "Retrying"), this.messages);
+
+        handler.flush();
+        assertEquals(Arrays.asList("Sync failed", "Retrying", "Recovered"), this.messages);
+    }
+
+    @Test
+    public void buffersAreKeptPerThread() throws InterruptedException
+    {
+        final FingersCrossedHandler handler = new FingersCrossedHandler(this.collector, LogLevel.ERROR, 4, TimeUnit.HOURS.toMillis(1));
+        Thread other = new Thread() {
+            @Override
+            public void run()
+            {
+                handler.handle(new Record(LogLevel.INFO, "Other thread", null));
+            }
+        };
+        other.start();
+        other.join();
+
+        handler.handle(new Record(LogLevel.INFO, "This thread", null));
+        handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+
+        assertEquals(Arrays.asList("This thread", "Sync failed"), this.messages);
+    }
+
+    @Test
+    public void clearDiscardsBuffer()
+    {
+        FingersCrossedHandler handler = new FingersCrossedHandler(this.collector, LogLevel.ERROR, 4, TimeUnit.HOURS.toMillis(1));
+
+        handler.handle(new Record(LogLevel.INFO, "Started sync", null));
+        handler.clear();
+        handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+
+        assertEquals(Collections.singletonList("Sync failed"), this.messages);
+    }
+}
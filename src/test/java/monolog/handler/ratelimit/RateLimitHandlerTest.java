@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.handler.ratelimit;
+
+import monolog.LazyMessage;
+import monolog.LogLevel;
+import monolog.Record;
+import monolog.handler.Handler;
+import monolog.handler.HandlerResult;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class RateLimitHandlerTest
+{
+    final private List<Record> handled = Collections.synchronizedList(new ArrayList<Record>());
+    final private Handler collector = new Handler() {
+        @Override
+        public HandlerResult handle(Record record)
+        {
+            handled.add(record);
+            return HandlerResult.HANDLED;
+        }
+    };
+
+    @Test
+    public void limitsEachLevel()
+    {
+        RateLimitHandler handler = new RateLimitHandler(this.collector, new RateLimit(0.001, 3));
+
+        for (int index = 0; index < 10; index++) {
+            handler.handle(new Record(LogLevel.ERROR, "Failed", null));
+            handler.handle(new Record(LogLevel.INFO, "Loaded", null));
+        }
+
+        assertEquals(6, this.handled.size());
+        assertEquals(7, handler.getDroppedCount(LogLevel.ERROR));
+        assertEquals(7, handler.getDroppedCount(LogLevel.INFO));
+    }
+
+    @Test
+    public void limitsEachMessageSeparately()
+    {
+        RateLimitHandler handler = this.limitByMessage();
+
+        for (int index = 0; index < 10; index++) {
+            handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+        }
+        HandlerResult other = handler.handle(new Record(LogLevel.ERROR, "Upload failed", null));
+
+        assertEquals(HandlerResult.HANDLED, other);
+        assertEquals(2, this.handled.size());
+    }
+
+    @Test
+    public void lazyMessagesAreNotBuilt()
+    {
+        RateLimitHandler handler = this.limitByMessage();
+        final int[] built = new int[1];
+        LazyMessage message = new LazyMessage() {
+            @Override
+            public Object build()
+            {
+                built[0]++;
+                return "Expensive";
+            }
+        };
+
+        for (int index = 0; index < 10; index++) {
+            handler.handle(new Record(LogLevel.ERROR, message, null));
+        }
+
+        assertEquals(1, this.handled.size());
+        assertEquals(9, handler.getDroppedCount(LogLevel.ERROR));
+        assertEquals(0, built[0]);
+    }
+
+    @Test
+    public void summarySentAfterFloodStops() throws InterruptedException
+    {
+        RateLimitHandler handler = this.limitErrors(false, 50);
+
+        for (int index = 0; index < 5; index++) {
+            handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (this.handled.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, this.handled.size());
+        assertEquals("Rate limit dropped 4 ERROR records", this.handled.get(1).getMessageString());
+        assertEquals(0, handler.getDroppedCount(LogLevel.ERROR));
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shutdownSendsWaitingCounts() throws InterruptedException
+    {
+        RateLimitHandler handler = this.limitByMessage();
+
+        for (int index = 0; index < 3; index++) {
+            handler.handle(new Record(LogLevel.ERROR, "Sync failed", null));
+        }
+        assertEquals(1, this.handled.size());
+
+        assertTrue(handler.shutdown(1, TimeUnit.SECONDS));
+        assertEquals(2, this.handled.size());
+        assertEquals("Rate limit dropped 2 ERROR records", this.handled.get(1).getMessageString());
+    }
+
+    private RateLimitHandler limitByMessage()
+    {
+        return this.limitErrors(true, TimeUnit.HOURS.toMillis(1));
+    }
+
+    private RateLimitHandler limitErrors(boolean limitByMessage, long summaryIntervalMillis)
+    {
+        Map<LogLevel, RateLimit> limits = new EnumMap<LogLevel, RateLimit>(LogLevel.class);
+        limits.put(LogLevel.ERROR, new RateLimit(0.001, 1));
+
+        return new RateLimitHandler(
+            this.collector,
+            limits,
+            limitByMessage,
+            1,
+            HandlerResult.PASSED,
+            summaryIntervalMillis
+        );
+    }
+}
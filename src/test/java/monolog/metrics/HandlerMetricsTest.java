@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2015 Ink Applications, LLC.
+ * Distributed under the MIT License (http://opensource.org/licenses/MIT)
+ */
+package monolog.metrics;
+
+import monolog.handler.HandlerResult;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Maxwell Vandervelde (Max@MaxVandervelde.com)
+ */
+public class HandlerMetricsTest
+{
+    @Test
+    public void stripesDoNotShareCacheLines()
+    {
+        int stride = Stripes.strideOf(HandlerResult.values().length + 1);
+
+        assertTrue(stride * 8 >= 64);
+        assertEquals(0, Stripes.offsetOf(1, stride) * 8 % 64);
+        assertTrue(Stripes.lengthOf(stride) >= Stripes.offsetOf(Stripes.COUNT, stride));
+        assertEquals(LatencyHistogram.BUCKETS, Stripes.strideOf(LatencyHistogram.BUCKETS));
+    }
+
+    @Test
+    public void countsFromEveryThread() throws InterruptedException
+    {
+        final HandlerMetrics metrics = new HandlerMetrics(null);
+        final int threads = 16;
+        final int calls = 10000;
+        final CountDownLatch done = new CountDownLatch(threads);
+        for (int thread = 0; thread < threads; thread++) {
+            new Thread() {
+                @Override
+                public void run()
+                {
+                    for (int call = 0; call < calls; call++) {
+                        metrics.record(HandlerResult.HANDLED, call);
+                    }
+                    metrics.recordFailure(1);
+                    done.countDown();
+                }
+            }.start();
+        }
+        done.await();
+
+        HandlerStatistics statistics = metrics.snapshot();
+        assertEquals(threads * calls, statistics.getHandled());
+        assertEquals(threads, statistics.getFailed());
+        assertEquals(0, statistics.getPassed());
+        assertEquals(threads * (calls + 1), statistics.getLatency().getCount());
+    }
+}